@@ -0,0 +1,107 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv.benchmark;
+
+import oap.tsv.Printer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static oap.tsv.Tsv.DELIMITER_COMMA;
+import static oap.tsv.Tsv.DELIMITER_TAB;
+
+/**
+ * Generated benchmark inputs, the same for every run.
+ */
+public enum Dataset {
+    NARROW( 5, 8 ),
+    WIDE( 100, 8 ),
+    ESCAPED( 10, 16 ),
+    UNICODE( 10, 16 ),
+    LONG_LINE( 4, 16 * 1024 );
+
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+    private static final String UNICODE_ALPHABET = "абвгдеёжзийклмнопрстуфхцчшщъыьэюя日本語中文字符€😀";
+    private static final String SPECIAL = "\t\n\r\\\",'";
+
+    public final int columns;
+    public final int cellLength;
+
+    Dataset( int columns, int cellLength ) {
+        this.columns = columns;
+        this.cellLength = cellLength;
+    }
+
+    public List<List<String>> rows( int count ) {
+        var random = new Random( 31L * ordinal() + count );
+        var rows = new ArrayList<List<String>>( count );
+        for( var i = 0; i < count; i++ ) {
+            var row = new ArrayList<String>( columns );
+            for( var j = 0; j < columns; j++ ) row.add( cell( random ) );
+            rows.add( row );
+        }
+        return rows;
+    }
+
+    private String cell( Random random ) {
+        var length = 1 + random.nextInt( cellLength );
+        var sb = new StringBuilder( length );
+        for( var i = 0; i < length; i++ ) {
+            if( this == ESCAPED && random.nextInt( 4 ) == 0 ) sb.append( SPECIAL.charAt( random.nextInt( SPECIAL.length() ) ) );
+            else if( this == UNICODE ) sb.appendCodePoint( UNICODE_ALPHABET.codePointAt(
+                UNICODE_ALPHABET.offsetByCodePoints( 0, random.nextInt( UNICODE_ALPHABET.codePointCount( 0, UNICODE_ALPHABET.length() ) ) ) ) );
+            else sb.append( ALPHABET.charAt( random.nextInt( ALPHABET.length() ) ) );
+        }
+        return sb.toString();
+    }
+
+    /**
+     * escaped tsv lines without line separators
+     */
+    public String[] tsvLines( int count ) {
+        return rows( count ).stream().map( row -> strip( Printer.print( row, DELIMITER_TAB ) ) ).toArray( String[]::new );
+    }
+
+    /**
+     * quoted csv lines without line separators
+     */
+    public String[] csvLines( int count ) {
+        return rows( count ).stream().map( row -> strip( Printer.print( row, DELIMITER_COMMA, true ) ) ).toArray( String[]::new );
+    }
+
+    public byte[] tsv( int count ) {
+        return ( String.join( "\n", tsvLines( count ) ) + "\n" ).getBytes( UTF_8 );
+    }
+
+    public byte[] csv( int count ) {
+        return ( String.join( "\n", csvLines( count ) ) + "\n" ).getBytes( UTF_8 );
+    }
+
+    private static String strip( String line ) {
+        return line.substring( 0, line.length() - 1 );
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv.benchmark;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import oap.tsv.TsvInputStream;
+import oap.tsv.TsvRow;
+import oap.tsv.mapper.Configuration;
+import oap.tsv.mapper.Mapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * {@link Mapper#apply} of a typed record from decoded lines and from {@link TsvRow}s.
+ */
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector" )
+public class MapperBenchmark {
+    public static final int LINES = 1024;
+
+    private final Mapper<Event> mapper = Mapper.of( Event.class, new Configuration(
+        new Configuration.Column( 0, "id" ),
+        new Configuration.Column( 1, "count" ),
+        new Configuration.Column( 2, "price" ),
+        new Configuration.Column( 3, "active" ),
+        new Configuration.Column( 4, "kind" ),
+        new Configuration.Column( 5, "name" ) ) );
+    private final List<?>[] strings = new List<?>[LINES];
+    private final TsvRow[] rows = new TsvRow[LINES];
+    private int line = 0;
+
+    @Setup
+    public void setup() {
+        var random = new Random( 0 );
+        var cells = new IntArrayList();
+        for( var i = 0; i < LINES; i++ ) {
+            var text = random.nextInt() + "\t" + random.nextLong() + "\t" + random.nextInt( 100000 ) / 100.0 + "\t"
+                + random.nextBoolean() + "\t" + Kind.values()[random.nextInt( Kind.values().length )] + "\tname" + i;
+            strings[i] = List.of( text.split( "\t" ) );
+
+            var bytes = text.getBytes( UTF_8 );
+            cells.clear();
+            TsvInputStream.split( bytes, bytes.length, cells );
+            rows[i] = TsvRow.of( bytes, 0, bytes.length, cells );
+        }
+    }
+
+    @Benchmark
+    @SuppressWarnings( "unchecked" )
+    public Event strings() {
+        return mapper.apply( ( List<String> ) strings[line++ & ( LINES - 1 )] );
+    }
+
+    @Benchmark
+    public Event bytes() {
+        return mapper.apply( rows[line++ & ( LINES - 1 )] );
+    }
+
+    public enum Kind {
+        CLICK, VIEW, INSTALL
+    }
+
+    public record Event( int id, long count, double price, boolean active, Kind kind, String name ) {}
+}
@@ -0,0 +1,88 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv.benchmark;
+
+import oap.tsv.TsvArray;
+import org.joda.time.format.ISODateTimeFormat;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State( Scope.Benchmark )
+@BenchmarkMode( Mode.Throughput )
+@OutputTimeUnit( TimeUnit.SECONDS )
+@Warmup( iterations = 3, time = 2 )
+@Measurement( iterations = 5, time = 2 )
+@Fork( value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector" )
+public class TsvArrayBenchmark {
+    public static final int LINES = 1024;
+
+    @Param
+    public Dataset dataset;
+
+    private final TsvArray.Cursor cursor = new TsvArray.Cursor();
+    private final List<String> elements = new ArrayList<>();
+    private List<List<Object>> arrays;
+    private String[] printed;
+    private int line = 0;
+
+    @Setup
+    public void setup() {
+        arrays = new ArrayList<>();
+        for( var row : dataset.rows( LINES ) ) {
+            var array = new ArrayList<Object>( row );
+            array.add( row.size() );
+            arrays.add( array );
+        }
+        printed = arrays.stream().map( a -> TsvArray.print( a, ISODateTimeFormat.dateTime() ) ).toArray( String[]::new );
+    }
+
+    @Benchmark
+    public String print() {
+        return TsvArray.print( arrays.get( line++ & ( LINES - 1 ) ), ISODateTimeFormat.dateTime() );
+    }
+
+    @Benchmark
+    public List<String> parse() {
+        return TsvArray.parse( printed[line++ & ( LINES - 1 )] );
+    }
+
+    @Benchmark
+    public List<String> parseReused() {
+        return cursor.reset( printed[line++ & ( LINES - 1 )] ).strings( elements );
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class BytesTest {
+    @Test
+    public void parseInt() {
+        assertThat( parseInt( "-2147483648" ) ).isEqualTo( Integer.MIN_VALUE );
+        assertThat( parseInt( "42" ) ).isEqualTo( 42 );
+        assertThat( parseInt( "+42" ) ).isEqualTo( 42 );
+        assertThat( parseInt( "\u0664\u0662" ) ).isEqualTo( Integer.parseInt( "\u0664\u0662" ) );
+        assertThatThrownBy( () -> parseInt( "2147483648" ) ).isInstanceOf( NumberFormatException.class );
+        assertThatThrownBy( () -> parseInt( "" ) ).isInstanceOf( NumberFormatException.class );
+        assertThatThrownBy( () -> parseInt( "+" ) ).isInstanceOf( NumberFormatException.class );
+    }
+
+    @Test
+    public void parseDouble() {
+        var random = new Random( 0 );
+        for( var i = 0; i < 10000; i++ ) {
+            var value = switch( i % 3 ) {
+                case 0 -> Double.toString( random.nextDouble() * 1000 );
+                case 1 -> random.nextInt() + "." + random.nextInt( 1000 );
+                default -> Double.toString( random.nextDouble() * Math.pow( 10, random.nextInt( 40 ) - 20 ) );
+            };
+            assertThat( parseDouble( value ) ).as( value ).isEqualTo( Double.parseDouble( value ) );
+        }
+        assertThat( parseDouble( "-0" ) ).isEqualTo( -0.0 );
+        assertThat( parseDouble( ".5" ) ).isEqualTo( 0.5 );
+        assertThat( parseDouble( "1e3" ) ).isEqualTo( 1000.0 );
+        assertThatThrownBy( () -> parseDouble( "-" ) ).isInstanceOf( NumberFormatException.class );
+    }
+
+    @Test
+    public void parseBoolean() {
+        var bytes = "TRUE\ttrue\tyes".getBytes( UTF_8 );
+        assertThat( Bytes.parseBoolean( bytes, 0, 4 ) ).isTrue();
+        assertThat( Bytes.parseBoolean( bytes, 5, 4 ) ).isTrue();
+        assertThat( Bytes.parseBoolean( bytes, 10, 3 ) ).isFalse();
+    }
+
+    private static int parseInt( String value ) {
+        var bytes = value.getBytes( UTF_8 );
+        return Bytes.parseInt( bytes, 0, bytes.length );
+    }
+
+    private static double parseDouble( String value ) {
+        var bytes = value.getBytes( UTF_8 );
+        return Bytes.parseDouble( bytes, 0, bytes.length );
+    }
+}
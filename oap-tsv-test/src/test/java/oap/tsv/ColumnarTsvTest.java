@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import oap.io.content.ContentReader;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static oap.testng.Asserts.assertString;
+import static oap.tsv.test.TsvAssertion.assertTsv;
+import static oap.tsv.test.TsvAssertion.header;
+import static oap.tsv.test.TsvAssertion.row;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ColumnarTsvTest {
+    @Test
+    public void sameAsTsv() {
+        var text = "country\tid\tname\nus\t1\tя\nuk\t2\t\nus\t3\tc\n";
+        var tsv = ContentReader.read( text, Tsv.tsv.ofSeparatedValues() ).withHeaders().toTsv();
+        var columnar = ContentReader.read( text, Tsv.tsv.ofSeparatedValues() ).withHeaders().toColumnarTsv();
+
+        assertThat( columnar ).isEqualTo( tsv );
+        assertThat( columnar.data ).isEqualTo( tsv.data );
+        assertString( columnar.toString() ).isEqualTo( text );
+        assertTsv( columnar )
+            .containsOnlyOnceEntriesOf( header( "name", "country" ), row( "я", "us" ), row( "", "uk" ) );
+    }
+
+    @Test
+    public void raggedRows() {
+        var data = List.of( List.of( "a", "b" ), List.of( "c" ), List.of( "d", "e", "f" ) );
+
+        assertThat( ColumnarTsv.of( new Tsv( List.of(), data ) ).data ).isEqualTo( data );
+    }
+
+    @Test
+    public void dictionary() {
+        var data = new ArrayList<List<String>>();
+        for( var i = 0; i < 10000; i++ ) data.add( List.of( "c" + i % 10, "id" + i ) );
+
+        var columnar = ColumnarTsv.of( new Tsv( List.of( "country", "id" ), data ) );
+
+        assertThat( columnar.isDictionary( 0 ) ).isTrue();
+        assertThat( columnar.isDictionary( 1 ) ).isFalse();
+        assertThat( columnar.size() ).isEqualTo( 10000 );
+        assertThat( columnar.get( 1234, 0 ) ).isEqualTo( "c4" );
+        assertThat( columnar.get( 1234, 1 ) ).isEqualTo( "id1234" );
+        assertThat( columnar.data ).isEqualTo( data );
+    }
+}
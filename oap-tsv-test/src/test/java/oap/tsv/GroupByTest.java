@@ -0,0 +1,129 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import oap.io.content.ContentReader;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.List;
+
+import static oap.tsv.test.TsvAssertion.assertTsv;
+import static oap.tsv.test.TsvAssertion.header;
+import static oap.tsv.test.TsvAssertion.row;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class GroupByTest {
+    private static final String TSV = """
+        country\tdevice\tcount\tprice
+        us\tphone\t10\t1.5
+        uk\ttablet\t-5\t2
+        us\tpc\t\t3
+        us\tphone\t7\t
+        uk\ttablet\t1\t0.25
+        """;
+
+    @Test
+    public void sum() {
+        assertTsv( read().groupBy( "country", "device" ).sum( "count", "price" ).toTsv() )
+            .containsExactlyInAnyOrderEntriesOf(
+                header( "country", "device", "count", "price" ),
+                row( "us", "phone", "17", "1.5" ),
+                row( "uk", "tablet", "-4", "2.25" ),
+                row( "us", "pc", "", "3.0" ) );
+    }
+
+    @Test
+    public void sumOverflowsToDouble() {
+        assertThat( ContentReader.read( "k\tv\na\t9223372036854775807\na\t\na\t9223372036854775807\n", Tsv.tsv.ofSeparatedValues() )
+            .groupBy( "k" ).sum( "v" ).stripHeaders().toList() )
+            .containsExactly( List.of( "a", String.valueOf( 2.0 * Long.MAX_VALUE ) ) );
+    }
+
+    @Test
+    public void count() {
+        assertTsv( read().groupBy( "country" ).count().toTsv() )
+            .containsExactlyInAnyOrderEntriesOf(
+                header( "country", "count" ),
+                row( "us", "3" ),
+                row( "uk", "2" ) );
+    }
+
+    @Test
+    public void minMax() {
+        assertTsv( read().groupBy( "country" ).min( "count", "price" ).toTsv() )
+            .containsExactlyInAnyOrderEntriesOf(
+                header( "country", "count", "price" ),
+                row( "us", "7", "1.5" ),
+                row( "uk", "-5", "0.25" ) );
+        assertTsv( read().groupBy( "device" ).max( "count" ).toTsv() )
+            .containsExactlyInAnyOrderEntriesOf(
+                header( "device", "count" ),
+                row( "phone", "10" ),
+                row( "tablet", "1" ),
+                row( "pc", "" ) );
+    }
+
+    @Test
+    public void withoutHeaders() {
+        assertThat( read().stripHeaders().groupBy( 0 ).sum( 2 ).toList() )
+            .containsExactlyInAnyOrder( List.of( "us", "17" ), List.of( "uk", "-4" ) );
+    }
+
+    @Test
+    public void parallel() {
+        var tsv = new StringBuilder( "a\tb\tvalue\n" );
+        var expected = new HashMap<List<String>, Long>();
+        for( var i = 0; i < 100000; i++ ) {
+            var key = List.of( "a" + i % 101, "b" + i % 7 );
+            tsv.append( key.get( 0 ) ).append( '\t' ).append( key.get( 1 ) ).append( '\t' ).append( i ).append( '\n' );
+            expected.merge( key, ( long ) i, Long::sum );
+        }
+
+        var actual = new HashMap<List<String>, Long>();
+        ContentReader.read( tsv.toString(), Tsv.tsv.ofSeparatedValues() )
+            .withHeaders()
+            .parallel()
+            .groupBy( "a", "b" )
+            .sum( "value" )
+            .stripHeaders()
+            .toList()
+            .forEach( line -> actual.put( List.of( line.get( 0 ), line.get( 1 ) ), Long.parseLong( line.get( 2 ) ) ) );
+
+        assertThat( actual ).isEqualTo( expected );
+    }
+
+    @Test
+    public void compositeKey() {
+        var line = List.of( "", "a\tb", "c" );
+        var key = GroupBy.key( line, new int[] { 0, 1, 2 } );
+
+        assertThat( GroupBy.cells( key, 3 ) ).isEqualTo( line );
+    }
+
+    private static TsvStream read() {
+        return ContentReader.read( TSV, Tsv.tsv.ofSeparatedValues() );
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import org.testng.annotations.Test;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class InternerTest {
+    @Test
+    public void sameInstance() {
+        var interner = new Interner( 16 );
+        var bytes = "us\tuk\tus".getBytes( UTF_8 );
+
+        var us = interner.intern( bytes, 0, 2 );
+        assertThat( us ).isEqualTo( "us" );
+        assertThat( interner.intern( bytes, 6, 2 ) ).isSameAs( us );
+        assertThat( interner.intern( ByteBuffer.allocateDirect( 2 ).put( bytes, 0, 2 ), 0, 2 ) ).isSameAs( us );
+        assertThat( interner.intern( bytes, 3, 2 ) ).isEqualTo( "uk" );
+    }
+
+    @Test
+    public void bounded() {
+        var interner = new Interner( 4 );
+        for( var i = 0; i < 1000; i++ ) {
+            var value = "v" + i % 100;
+            var bytes = value.getBytes( UTF_8 );
+            assertThat( interner.intern( bytes, 0, bytes.length ) ).isEqualTo( value );
+            assertThat( interner.intern( value ) ).isEqualTo( value );
+        }
+    }
+}
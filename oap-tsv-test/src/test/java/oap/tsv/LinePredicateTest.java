@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import oap.io.content.ContentReader;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static oap.tsv.LinePredicate.between;
+import static oap.tsv.LinePredicate.eq;
+import static oap.tsv.LinePredicate.in;
+import static oap.tsv.LinePredicate.startsWith;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class LinePredicateTest {
+    private static final String TSV = "country\tdevice\tcount\nus\tphone\t10\nuk\ttablet\t-5\nus\tpc\tn/a\nde\tphone\t7\n";
+
+    @Test
+    public void parserFilter() {
+        assertThat( read( new TsvBytesParser().filter( eq( 0, "us" ), true ) ).data )
+            .containsExactly( List.of( "us", "phone", "10" ), List.of( "us", "pc", "n/a" ) );
+        assertThat( read( new TsvBytesParser().filter( in( 1, "tablet", "pc" ), true ) ).data )
+            .containsExactly( List.of( "uk", "tablet", "-5" ), List.of( "us", "pc", "n/a" ) );
+        assertThat( read( new TsvBytesParser().filter( between( 2, -5, 9 ), true ) ).data )
+            .containsExactly( List.of( "uk", "tablet", "-5" ), List.of( "de", "phone", "7" ) );
+        assertThat( read( new TsvBytesParser().filter( startsWith( 1, "p" ).and( eq( 0, "us" ).negate() ), true ) ).data )
+            .containsExactly( List.of( "de", "phone", "7" ) );
+    }
+
+    @Test
+    public void headersAreNotFiltered() {
+        var tsv = read( new TsvBytesParser().filter( eq( 0, "uk" ), true ) );
+        assertThat( tsv.headers ).containsExactly( "country", "device", "count" );
+        assertThat( tsv.data ).containsExactly( List.of( "uk", "tablet", "-5" ) );
+
+        var fromReader = new TsvBytesParser().filter( eq( 0, "uk" ), true ).from( new StringReader( TSV ) ).withHeaders().toTsv();
+        assertThat( fromReader.headers ).containsExactly( "country", "device", "count" );
+        assertThat( fromReader.data ).containsExactly( List.of( "uk", "tablet", "-5" ) );
+    }
+
+    @Test
+    public void headerless() {
+        var parser = new TsvBytesParser().filter( eq( 0, "x" ) );
+        assertThat( ContentReader.read( "a\nx\n", parser.ofSeparatedValues() ).toList() ).containsExactly( List.of( "x" ) );
+        assertThat( parser.from( new StringReader( "a\nx" ) ).toList() ).containsExactly( List.of( "x" ) );
+        assertThat( parser.from( new StringReader( "a\nb" ) ).toList() ).isEmpty();
+    }
+
+    @Test
+    public void selectedHeadersAreNotFiltered() {
+        var tsv = read( new TsvBytesParser().select( "count", "country" ).filter( eq( 0, "uk" ) ) );
+        assertThat( tsv.headers ).containsExactly( "count", "country" );
+        assertThat( tsv.data ).containsExactly( List.of( "-5", "uk" ) );
+    }
+
+    @Test
+    public void readCells() throws IOException {
+        var is = new TsvInputStream( new ByteArrayInputStream( TSV.getBytes( UTF_8 ) ), new byte[1024] );
+
+        assertThat( is.readCells( eq( 1, "phone" ) ) ).isTrue();
+        assertThat( is.line.cells ).hasSize( 3 );
+        assertThat( is.line.indexOf( "us" ) ).isEqualTo( 0 );
+        assertThat( is.readCells( eq( 1, "phone" ) ) ).isTrue();
+        assertThat( is.line.indexOf( "de" ) ).isEqualTo( 0 );
+        assertThat( is.readCells( eq( 1, "phone" ) ) ).isFalse();
+    }
+
+    private static Tsv read( TsvBytesParser parser ) {
+        return ContentReader.read( TSV, parser.ofSeparatedValues() ).withHeaders().toTsv();
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import oap.tsv.test.TmpFiles;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class MappedTsvReaderTest extends TmpFiles {
+    @Test
+    public void readCells() throws IOException {
+        var path = tmpFile( "a\tbb\tc\r\n\nxyz\t1\n12\t34\t56" );
+        for( var windowSize : new long[] { 12, MappedTsvReader.DEFAULT_WINDOW_SIZE } ) {
+            try( var reader = new MappedTsvReader( path, windowSize ) ) {
+                assertThat( readAll( reader ) ).containsExactly(
+                    List.of( "a", "bb", "c" ),
+                    List.of( "" ),
+                    List.of( "xyz", "1" ),
+                    List.of( "12", "34", "56" ) );
+            }
+        }
+    }
+
+    @Test
+    public void indexOf() throws IOException {
+        try( var reader = new MappedTsvReader( tmpFile( "a\tb\tc\n" ) ) ) {
+            assertThat( reader.readCells() ).isTrue();
+            assertThat( reader.line.indexOf( "a" ) ).isEqualTo( 0 );
+            assertThat( reader.line.indexOf( "c" ) ).isEqualTo( 2 );
+            assertThat( reader.line.indexOf( "d" ) ).isEqualTo( -1 );
+            assertThat( reader.readCells() ).isFalse();
+        }
+    }
+
+    @Test
+    public void lineLongerThanWindow() throws IOException {
+        try( var reader = new MappedTsvReader( tmpFile( "a\tb\nccccccccc\n" ), 4 ) ) {
+            assertThat( reader.readCells() ).isTrue();
+            assertThatThrownBy( reader::readCells ).isInstanceOf( IOException.class );
+        }
+    }
+
+    private static List<List<String>> readAll( MappedTsvReader reader ) throws IOException {
+        var result = new ArrayList<List<String>>();
+        while( reader.readCells() ) {
+            var row = new ArrayList<String>();
+            for( var i = 0; i < reader.line.cells.size(); i++ ) row.add( reader.line.cell( i ) );
+            result.add( row );
+        }
+        return result;
+    }
+}
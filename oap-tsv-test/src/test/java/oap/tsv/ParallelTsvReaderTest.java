@@ -0,0 +1,75 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import oap.tsv.test.TmpFiles;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static oap.tsv.LinePredicate.eq;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ParallelTsvReaderTest extends TmpFiles {
+    private static final String TSV = "a\tb\n1\tx\n2\tyy\r\n\n3\tzzz\n4\tx\n5\tyy\n6";
+
+    @Test
+    public void ordered() throws IOException {
+        var path = tmpFile( TSV );
+        var stream = new ParallelTsvReader().withChunkSize( 4 ).read( path ).withHeaders();
+        assertThat( stream.headers() ).containsExactly( "a", "b" );
+        assertThat( stream.stripHeaders().toList() ).containsExactly(
+            List.of( "1", "x" ), List.of( "2", "yy" ), List.of( "" ), List.of( "3", "zzz" ),
+            List.of( "4", "x" ), List.of( "5", "yy" ), List.of( "6" ) );
+    }
+
+    @Test
+    public void unordered() throws IOException {
+        var path = tmpFile( TSV );
+        var stream = new ParallelTsvReader().withChunkSize( 4 ).withOrdered( false ).read( path ).withHeaders();
+        assertThat( stream.headers() ).containsExactly( "a", "b" );
+        assertThat( stream.stripHeaders().toList() ).containsExactlyInAnyOrder(
+            List.of( "1", "x" ), List.of( "2", "yy" ), List.of( "" ), List.of( "3", "zzz" ),
+            List.of( "4", "x" ), List.of( "5", "yy" ), List.of( "6" ) );
+    }
+
+    @Test
+    public void filterKeepsHeaders() throws IOException {
+        var path = tmpFile( TSV );
+        var stream = new ParallelTsvReader().withChunkSize( 4 ).withFilter( eq( 1, "x" ), true ).read( path ).withHeaders();
+        assertThat( stream.headers() ).containsExactly( "a", "b" );
+        assertThat( stream.stripHeaders().toList() ).containsExactly( List.of( "1", "x" ), List.of( "4", "x" ) );
+
+        assertThat( new ParallelTsvReader().withChunkSize( 4 ).withFilter( eq( 1, "x" ) ).read( path ).toList() )
+            .containsExactly( List.of( "1", "x" ), List.of( "4", "x" ) );
+    }
+
+    @Test
+    public void empty() throws IOException {
+        var path = tmpFile( "" );
+        assertThat( new ParallelTsvReader().read( path ).toList() ).isEmpty();
+    }
+}
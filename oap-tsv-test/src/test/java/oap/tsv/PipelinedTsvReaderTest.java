@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static oap.tsv.LinePredicate.eq;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class PipelinedTsvReaderTest {
+    private static final String TSV = "a\tb\n1\tx\n2\tyy\r\n\n3\tzzz\n4\tx\n5\tyy\n6";
+
+    @Test
+    public void gzip() throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try( var gzip = new GZIPOutputStream( bytes ) ) {
+            gzip.write( TSV.getBytes( UTF_8 ) );
+        }
+
+        try( var stream = new PipelinedTsvReader().withBlockSize( 4 ).withQueueSize( 1 )
+            .read( new GZIPInputStream( new ByteArrayInputStream( bytes.toByteArray() ) ) ).withHeaders()
+            .toStream() ) {
+            assertThat( stream.toList() ).containsExactly(
+                List.of( "a", "b" ), List.of( "1", "x" ), List.of( "2", "yy" ), List.of( "" ), List.of( "3", "zzz" ),
+                List.of( "4", "x" ), List.of( "5", "yy" ), List.of( "6" ) );
+        }
+    }
+
+    @Test
+    public void filterKeepsHeaders() {
+        var stream = new PipelinedTsvReader().withBlockSize( 4 ).withFilter( eq( 1, "x" ), true )
+            .read( new ByteArrayInputStream( TSV.getBytes( UTF_8 ) ) ).withHeaders();
+        assertThat( stream.headers() ).containsExactly( "a", "b" );
+        assertThat( stream.stripHeaders().toList() ).containsExactly( List.of( "1", "x" ), List.of( "4", "x" ) );
+
+        assertThat( new PipelinedTsvReader().withBlockSize( 4 ).withFilter( eq( 1, "x" ) )
+            .read( new ByteArrayInputStream( TSV.getBytes( UTF_8 ) ) ).toList() )
+            .containsExactly( List.of( "1", "x" ), List.of( "4", "x" ) );
+    }
+
+    @Test
+    public void stagesAreDaemons() {
+        var stream = new PipelinedTsvReader().withBlockSize( 4 ).withQueueSize( 1 )
+            .read( new ByteArrayInputStream( TSV.repeat( 100 ).getBytes( UTF_8 ) ) );
+        try {
+            assertThat( stream.toStream().findFirst() ).contains( List.of( "a", "b" ) );
+            assertThat( Thread.getAllStackTraces().keySet() )
+                .filteredOn( thread -> thread.getName().startsWith( "tsv-pipeline-" ) )
+                .isNotEmpty()
+                .allMatch( Thread::isDaemon );
+        } finally {
+            stream.toStream().close();
+        }
+    }
+
+    @Test
+    public void failure() {
+        var failing = new InputStream() {
+            private int count = 0;
+
+            @Override
+            public int read() throws IOException {
+                if( count++ > 1000 ) throw new IOException( "broken" );
+                return count % 10 == 0 ? '\n' : 'a';
+            }
+        };
+
+        assertThatThrownBy( () -> new PipelinedTsvReader().withBlockSize( 64 ).read( failing ).toList() )
+            .isInstanceOf( UncheckedIOException.class )
+            .hasRootCauseMessage( "broken" );
+    }
+}
@@ -60,4 +60,14 @@ public class TokenizerTest {
         assertThat( parse( "1,\"2\"\"2\",33,44", DELIMITER_COMMA, true ) )
             .containsExactly( "1", "2\"2", "33", "44" );
     }
+
+    @Test
+    public void parseSelected() {
+        assertThat( parse( "1,22,33,44", DELIMITER_COMMA, new int[] { 2, 0 }, false ) )
+            .containsExactly( "33", "1" );
+        assertThat( parse( "1,\"2,2\",\"3\"\"3\",44", DELIMITER_COMMA, new int[] { 1, 2 }, true ) )
+            .containsExactly( "2,2", "3\"3" );
+        assertThat( parse( "1\t22", DELIMITER_TAB, new int[] { 1, 5 }, false ) )
+            .containsExactly( "22", "" );
+    }
 }
@@ -24,11 +24,15 @@
 
 package oap.tsv;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import junit.framework.TestCase;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
 
 public class TsvArrayTest extends TestCase {
@@ -45,5 +49,28 @@ public class TsvArrayTest extends TestCase {
         assertThat( TsvArray.parse( "[1,2,3]" ) ).isEqualTo( List.of( "1", "2", "3" ) );
         assertThat( TsvArray.parse( "['1','2','3']" ) ).isEqualTo( List.of( "1", "2", "3" ) );
         assertThat( TsvArray.parse( "['1','\\'2','3']" ) ).isEqualTo( List.of( "1", "'2", "3" ) );
+        assertThat( TsvArray.parse( "['a,b','c']" ) ).isEqualTo( List.of( "a,b", "c" ) );
+        assertThat( TsvArray.parse( "[]" ) ).isEmpty();
+    }
+
+    @Test
+    public void testParseTyped() {
+        assertThat( TsvArray.parseLongs( "[1,-2,9223372036854775807]" ) ).containsExactly( 1, -2, Long.MAX_VALUE );
+        assertThat( TsvArray.parseInts( "['1','2']" ) ).containsExactly( 1, 2 );
+        assertThat( TsvArray.parseDoubles( "[1.5,-2,3e3]" ) ).containsExactly( 1.5, -2, 3000 );
+    }
+
+    @Test
+    public void testCursor() {
+        var bytes = "x\t['a','it\\'s','ü']\t[10,'20']".getBytes( UTF_8 );
+        var cursor = new TsvArray.Cursor();
+
+        var strings = new ArrayList<String>();
+        cursor.reset( bytes, 2, 20 );
+        while( cursor.next() ) strings.add( cursor.string() );
+        assertThat( strings ).containsExactly( "a", "it's", "ü" );
+
+        assertThat( cursor.reset( bytes, 21, bytes.length ).longs( new LongArrayList() ) ).containsExactly( 10L, 20L );
+        assertThat( cursor.reset( "[3,4]" ).ints( new IntArrayList() ) ).containsExactly( 3, 4 );
     }
 }
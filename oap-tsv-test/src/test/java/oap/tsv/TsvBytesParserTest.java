@@ -0,0 +1,126 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import oap.io.content.ContentReader;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static oap.io.IoStreams.Encoding.PLAIN;
+import static oap.tsv.test.TsvAssertion.assertTsv;
+import static oap.tsv.test.TsvAssertion.header;
+import static oap.tsv.test.TsvAssertion.row;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TsvBytesParserTest {
+    @Test
+    public void toList() {
+        assertThat( ContentReader.read( "1\t2\t3\n\nя\t\t\\t\n", Tsv.tsvBytes.ofSeparatedValues() )
+            .toList() )
+            .containsExactly(
+                List.of( "1", "2", "3" ),
+                List.of( "" ),
+                List.of( "я", "", "\\t" ) );
+    }
+
+    @Test
+    public void withHeaders() {
+        assertTsv( ContentReader.read( "a\tb\tc\r\n1\t2\t3\r\n4\t5\t6", Tsv.tsvBytes.ofSeparatedValues() )
+            .withHeaders()
+            .toTsv() )
+            .containsExactlyInAnyOrderEntriesOf(
+                header( "a", "b", "c" ),
+                row( "1", "2", "3" ),
+                row( "4", "5", "6" ) );
+    }
+
+    @Test
+    public void sameAsTsv() {
+        var tsv = "a\tb\tc\n1\t2\t3\n\n4\t\t6\n";
+        assertThat( ContentReader.read( tsv, Tsv.tsvBytes.ofSeparatedValues() ).toList() )
+            .isEqualTo( ContentReader.read( tsv, Tsv.tsv.ofSeparatedValues() ).toList() );
+    }
+
+    @Test
+    public void lineLongerThanBuffer() {
+        var reader = new TsvRowReader( new ByteArrayInputStream( "aaaaaaaaaa\tbbbbbbbbbb\ncc".getBytes( UTF_8 ) ), 4 );
+        assertThat( reader.next() ).containsExactly( "aaaaaaaaaa", "bbbbbbbbbb" );
+        assertThat( reader.next() ).containsExactly( "cc" );
+        assertThat( reader.hasNext() ).isFalse();
+    }
+
+    @Test
+    public void select() {
+        for( var parser : List.of( Tsv.tsv, Tsv.tsvBytes ) ) {
+            assertThat( ContentReader.read( "a\tb\tc\n1\t2\t3\n4", parser.select( 2, 0 ).ofSeparatedValues() )
+                .toList() )
+                .containsExactly(
+                    List.of( "c", "a" ),
+                    List.of( "3", "1" ),
+                    List.of( "", "4" ) );
+        }
+    }
+
+    @Test
+    public void selectByHeaders() {
+        for( var parser : List.of( Tsv.tsv, Tsv.tsvBytes ) ) {
+            assertTsv( ContentReader.read( "a\tb\tc\n1\t2\t3\n4\t5\t6", parser.select( "c", "a" ).ofSeparatedValues() )
+                .toTsv() )
+                .containsExactlyInAnyOrderEntriesOf(
+                    header( "c", "a" ),
+                    row( "3", "1" ),
+                    row( "6", "4" ) );
+        }
+    }
+
+    @Test
+    public void selectByHeadersFromReader() {
+        for( var parser : List.of( Tsv.tsv, Tsv.tsvBytes ) ) {
+            assertTsv( parser.select( "c", "a" ).from( new StringReader( "a\tb\tc\n1\t2\t3\n4\t5\t6" ) ).toTsv() )
+                .containsExactlyInAnyOrderEntriesOf(
+                    header( "c", "a" ),
+                    row( "3", "1" ),
+                    row( "6", "4" ) );
+        }
+    }
+
+    @Test
+    public void fromUrl() {
+        var progress = new ArrayList<Integer>();
+        assertTsv( Tsv.tsvBytes.fromUrl( getClass().getResource( "TsvBytesParserTest/data.tsv" ), PLAIN, progress::add )
+            .withHeaders()
+            .toTsv() )
+            .containsExactlyInAnyOrderEntriesOf(
+                header( "a", "b", "c" ),
+                row( "1", "2", "3" ),
+                row( "4", "5", "6" ) );
+        assertThat( progress ).endsWith( 100 );
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TsvCursorTest {
+    @Test
+    public void tsv() throws IOException {
+        try( var cursor = TsvCursor.tsv( new StringReader( "1\t22\t\n\nabc\r\nlast" ) ) ) {
+            assertThat( cursor.nextRow() ).isTrue();
+            assertThat( cursor.cellCount() ).isEqualTo( 3 );
+            assertThat( cursor.cell( 0 ).toString() ).isEqualTo( "1" );
+            assertThat( cursor.cellEquals( 1, "22" ) ).isTrue();
+            assertThat( cursor.cellEquals( 1, "2" ) ).isFalse();
+            assertThat( cursor.cell( 2 ) ).isEmpty();
+
+            assertThat( cursor.nextRow() ).isTrue();
+            assertThat( cursor.cellCount() ).isEqualTo( 1 );
+            assertThat( cursor.cell( 0 ) ).isEmpty();
+
+            assertThat( cursor.nextRow() ).isTrue();
+            assertThat( cursor.string( 0 ) ).isEqualTo( "abc" );
+
+            assertThat( cursor.nextRow() ).isTrue();
+            assertThat( cursor.string( 0 ) ).isEqualTo( "last" );
+
+            assertThat( cursor.nextRow() ).isFalse();
+        }
+    }
+
+    @Test
+    public void cellsOfShorterRow() throws IOException {
+        try( var cursor = TsvCursor.tsv( new StringReader( "1\t22\t333\n4" ) ) ) {
+            assertThat( cursor.nextRow() ).isTrue();
+            assertThat( cursor.nextRow() ).isTrue();
+            assertThat( cursor.cellCount() ).isEqualTo( 1 );
+            assertThatThrownBy( () -> cursor.cell( 1 ) ).isInstanceOf( IndexOutOfBoundsException.class );
+            assertThatThrownBy( () -> cursor.cellLength( 1 ) ).isInstanceOf( IndexOutOfBoundsException.class );
+            assertThatThrownBy( () -> cursor.string( 2 ) ).isInstanceOf( IndexOutOfBoundsException.class );
+            assertThatThrownBy( () -> cursor.cellEquals( 2, "333" ) ).isInstanceOf( IndexOutOfBoundsException.class );
+        }
+    }
+
+    @Test
+    public void csvQuoted() throws IOException {
+        try( var cursor = TsvCursor.csv( new StringReader( "1,\"2,2\",\"3\"\"3\",44\n" ) ) ) {
+            assertThat( cursor.nextRow() ).isTrue();
+            assertThat( cursor.cellCount() ).isEqualTo( 4 );
+            assertThat( cursor.string( 0 ) ).isEqualTo( "1" );
+            assertThat( cursor.string( 1 ) ).isEqualTo( "2,2" );
+            assertThat( cursor.cellEquals( 2, "3\"3" ) ).isTrue();
+            assertThat( cursor.cell( 3 ).charAt( 1 ) ).isEqualTo( '4' );
+            assertThat( cursor.nextRow() ).isFalse();
+        }
+    }
+
+    @Test
+    public void lineLongerThanBuffer() throws IOException {
+        try( var cursor = new TsvCursor( new StringReader( "aaaaaaaa\tbbbbbbbb\ncc" ), '\t', false, 4 ) ) {
+            assertThat( cursor.nextRow() ).isTrue();
+            assertThat( cursor.string( 1 ) ).isEqualTo( "bbbbbbbb" );
+            assertThat( cursor.nextRow() ).isTrue();
+            assertThat( cursor.string( 0 ) ).isEqualTo( "cc" );
+            assertThat( cursor.nextRow() ).isFalse();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import oap.io.content.ContentReader;
+import oap.tsv.test.TmpFiles;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static oap.testng.Asserts.assertString;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TsvDedupTest extends TmpFiles {
+    private static final String TSV = """
+        a\tb\tc
+        x\t1\tfirst
+        y\t1\tsecond
+        x\t1\tduplicate
+        x\t2\tthird
+        """;
+
+    @Test
+    public void exact() {
+        assertString( read( TSV ).distinct( "a", "b" ).toTsvString() ).isEqualTo( """
+            a\tb\tc
+            x\t1\tfirst
+            y\t1\tsecond
+            x\t2\tthird
+            """ );
+        assertString( Tsv.tsvBytes.from( new ByteArrayInputStream( TSV.getBytes( UTF_8 ) ), UTF_8 ).distinct( "a" ).toTsvString() )
+            .isEqualTo( """
+                a\tb\tc
+                x\t1\tfirst
+                y\t1\tsecond
+                """ );
+    }
+
+    @Test
+    public void approximate() {
+        assertString( read( TSV ).approximateDistinct( 100, 0.01, "b" ).toTsvString() ).isEqualTo( """
+            a\tb\tc
+            x\t1\tfirst
+            x\t2\tthird
+            """ );
+    }
+
+    @Test
+    public void spilled() throws IOException {
+        var tsv = new StringBuilder( "key\tvalue\n" );
+        var expected = new LinkedHashMap<String, String>();
+        for( var i = 0; i < 20000; i++ ) {
+            var key = "k" + ( i * 7919 ) % 5000;
+            tsv.append( key ).append( '\t' ).append( i ).append( '\n' );
+            expected.putIfAbsent( key, String.valueOf( i ) );
+        }
+
+        var tmp = tmpDirectory();
+        var dedup = new TsvDedup().withMemory( 16 * 1024 ).withPartitions( 4 ).withTmp( tmp );
+        try( var rows = dedup.exact( read( tsv.toString() ), "key" ).stripHeaders().toStream() ) {
+            var actual = new HashMap<String, String>();
+            rows.forEach( row -> assertThat( actual.put( row.get( 0 ), row.get( 1 ) ) ).isNull() );
+            assertThat( actual ).isEqualTo( expected );
+        }
+        try( var files = Files.list( tmp ) ) {
+            assertThat( files ).isEmpty();
+        }
+    }
+
+    @Test
+    public void lines() throws IOException {
+        var is = new TsvInputStream( new ByteArrayInputStream( TSV.getBytes( UTF_8 ) ), new byte[1024] );
+        var seen = new HashKeySet();
+        var keys = new int[] { 0, 1 };
+
+        var distinct = 0;
+        while( is.readCells() ) if( seen.add( is.line, keys ) ) distinct++;
+
+        assertThat( distinct ).isEqualTo( 4 );
+        assertThat( seen.size() ).isEqualTo( 4 );
+        assertThat( seen.add( List.of( "x", "3" ), keys ) ).isTrue();
+    }
+
+    @Test
+    public void boundedKeySet() {
+        var memory = 64 * 1024;
+        var seen = new HashKeySet( 1024, memory );
+        for( var i = 1L; !seen.isFull(); i++ ) {
+            assertThat( seen.add( i, i ) ).isTrue();
+            assertThat( seen.bytes() ).isLessThanOrEqualTo( memory );
+        }
+
+        assertThat( seen.size() ).isGreaterThanOrEqualTo( memory / 64 );
+        assertThat( new HashKeySet( 1024, 1024 ).bytes() ).isLessThanOrEqualTo( 1024 );
+    }
+
+    private static TsvStream read( String tsv ) {
+        return ContentReader.read( tsv, Tsv.tsv.ofSeparatedValues() );
+    }
+}
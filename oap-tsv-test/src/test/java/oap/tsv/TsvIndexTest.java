@@ -0,0 +1,102 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import oap.tsv.test.TmpFiles;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TsvIndexTest extends TmpFiles {
+    @Test
+    public void readRange() throws IOException {
+        var sb = new StringBuilder( "id\tvalue\r\n" );
+        for( var i = 0; i < 1000; i++ ) sb.append( i ).append( '\t' ).append( i % 2 == 0 ? "" : "v" ).append( '\n' );
+        var file = tmpFile( sb.toString() );
+        var index = TsvIndex.of( file, 16, true );
+        assertThat( index.rows ).isEqualTo( 1000 );
+        assertThat( index.headers ).containsExactly( "id", "value" );
+        assertThat( TsvIndex.sidecar( file ) ).exists();
+
+        for( var from : new int[] { 0, 15, 16, 17, 500, 990 } ) {
+            var stream = index.read( file, from, from + 20 );
+            assertThat( stream.headers() ).containsExactly( "id", "value" );
+            assertThat( stream.stripHeaders().toList() ).isEqualTo( rows( from, Math.min( from + 20, 1000 ) ) );
+        }
+        assertThat( index.read( file, 1000, 1010 ).stripHeaders().toList() ).isEmpty();
+    }
+
+    @Test
+    public void staleIndexIsRebuilt() throws IOException {
+        var file = tmpFile( "id\tvalue\n0\t\n1\tv\n" );
+        assertThat( TsvIndex.of( file, 1, true ).rows ).isEqualTo( 2 );
+
+        Files.writeString( file, "id\tvalue\n0\t\n" );
+        Files.setLastModifiedTime( file, FileTime.fromMillis( System.currentTimeMillis() + 10000 ) );
+
+        var index = TsvIndex.of( file, 1, true );
+        assertThat( index.rows ).isEqualTo( 1 );
+        assertThat( index.isValid( file ) ).isTrue();
+        assertThat( TsvIndex.load( TsvIndex.sidecar( file ) ).rows ).isEqualTo( 1 );
+    }
+
+    @Test
+    public void corruptedIndexIsRebuilt() throws IOException {
+        var file = tmpFile( "id\tvalue\n0\t\n1\tv\n" );
+        TsvIndex.of( file, 1, true );
+        var sidecar = TsvIndex.sidecar( file );
+        var bytes = Files.readAllBytes( sidecar );
+        for( var i = 8; i < bytes.length; i++ ) bytes[i] = ( byte ) 0xFF;
+        Files.write( sidecar, bytes );
+
+        assertThat( TsvIndex.load( sidecar ) ).isNull();
+        assertThat( TsvIndex.of( file, 1, true ).rows ).isEqualTo( 2 );
+        assertThat( TsvIndex.load( sidecar ).rows ).isEqualTo( 2 );
+    }
+
+    @Test
+    public void unwritableIndexIsNotSaved() throws IOException {
+        var file = tmpFile( "id\tvalue\n0\t\n1\tv\n" );
+        var sidecar = Files.createDirectories( TsvIndex.sidecar( file ) );
+        Files.writeString( sidecar.resolve( "busy" ), "" );
+
+        assertThat( TsvIndex.of( file, 1, true ).rows ).isEqualTo( 2 );
+        try( var files = Files.list( file.getParent() ) ) {
+            assertThat( files ).containsOnly( file, sidecar );
+        }
+    }
+
+    private static List<List<String>> rows( int from, int to ) {
+        var rows = new ArrayList<List<String>>();
+        for( var i = from; i < to; i++ ) rows.add( List.of( String.valueOf( i ), i % 2 == 0 ? "" : "v" ) );
+        return rows;
+    }
+}
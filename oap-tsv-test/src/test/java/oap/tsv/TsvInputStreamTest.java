@@ -1,10 +1,12 @@
 package oap.tsv;
 
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import org.testng.annotations.Test;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Random;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 import static org.assertj.core.api.Assertions.assertThat;
@@ -26,6 +28,17 @@ public class TsvInputStreamTest {
         assertFalse( is.readCells() );
     }
 
+    @Test
+    public void readCellsLimit() throws IOException {
+        var data = "a\tb\tc\td\n".getBytes( UTF_8 );
+        var is = new TsvInputStream( new ByteArrayInputStream( data ), new byte[1024] );
+        assertTrue( is.readCells( 2 ) );
+
+        assertThat( is.line.cells ).containsExactly( 2, 4 );
+        assertThat( is.line.indexOf( "b" ) ).isEqualTo( 1 );
+        assertThat( is.line.indexOf( "c" ) ).isEqualTo( -1 );
+    }
+
     @Test
     public void testSplit() {
         ArrayList<String> split = new ArrayList<>();
@@ -61,6 +74,35 @@ public class TsvInputStreamTest {
         assertThat( split ).containsExactly( "start", "", "end" );
     }
 
+    @Test
+    public void testSplitBytes() {
+        var random = new Random( 1 );
+        for( var n = 0; n < 10000; n++ ) {
+            var line = new byte[random.nextInt( 300 )];
+            for( var i = 0; i < line.length; i++ )
+                line[i] = ( byte ) switch( random.nextInt( 16 ) ) {
+                    case 0 -> '\\';
+                    case 1, 2 -> '\t';
+                    default -> 'a';
+                };
+
+            var cells = new IntArrayList();
+            TsvInputStream.split( line, line.length, cells );
+            assertThat( cells ).isEqualTo( splitReference( line ) );
+        }
+    }
+
+    private static IntArrayList splitReference( byte[] line ) {
+        var cells = new IntArrayList();
+        var backslashes = 0;
+        for( var i = 0; i < line.length; i++ ) {
+            if( line[i] == '\t' && backslashes % 2 == 0 ) cells.add( i + 1 );
+            backslashes = line[i] == '\\' ? backslashes + 1 : 0;
+        }
+        cells.add( line.length + 1 );
+        return cells;
+    }
+
     @Test
     public void testEmptyCellEnd() {
         ArrayList<String> split = new ArrayList<>();
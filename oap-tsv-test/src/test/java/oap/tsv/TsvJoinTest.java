@@ -0,0 +1,114 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import oap.io.content.ContentReader;
+import oap.tsv.test.TmpFiles;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static oap.testng.Asserts.assertString;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TsvJoinTest extends TmpFiles {
+    private static final String LOG = """
+        country\tdevice\tcount
+        us\tphone\t10
+        uk\ttablet\t5
+        fr\tpc\t1
+        us\tpc
+        """;
+    private static final String COUNTRIES = """
+        name\tcountry\tregion
+        United States\tus\tamericas
+        United Kingdom\tuk\temea
+        USA\tus\tamericas
+        """;
+
+    @Test
+    public void inner() {
+        assertString( read( LOG ).join( read( COUNTRIES ), "country" ).toTsvString() ).isEqualTo( """
+            country\tdevice\tcount\tname\tregion
+            us\tphone\t10\tUnited States\tamericas
+            us\tphone\t10\tUSA\tamericas
+            uk\ttablet\t5\tUnited Kingdom\temea
+            us\tpc\t\tUnited States\tamericas
+            us\tpc\t\tUSA\tamericas
+            """ );
+    }
+
+    @Test
+    public void left() {
+        assertString( read( LOG ).leftJoin( read( COUNTRIES ), "country" ).toTsvString() ).isEqualTo( """
+            country\tdevice\tcount\tname\tregion
+            us\tphone\t10\tUnited States\tamericas
+            us\tphone\t10\tUSA\tamericas
+            uk\ttablet\t5\tUnited Kingdom\temea
+            fr\tpc\t1\t\t
+            us\tpc\t\tUnited States\tamericas
+            us\tpc\t\tUSA\tamericas
+            """ );
+    }
+
+    @Test
+    public void partitioned() throws IOException {
+        var right = new StringBuilder( "b\ta\tw\n" );
+        var dimension = new HashMap<List<String>, List<String>>();
+        for( var i = 0; i < 3000; i++ ) {
+            var key = List.of( "a" + i % 100, "b" + i / 100 );
+            right.append( key.get( 1 ) ).append( '\t' ).append( key.get( 0 ) ).append( '\t' ).append( "w" ).append( i ).append( '\n' );
+            dimension.put( key, List.of( "w" + i ) );
+        }
+        var left = new StringBuilder( "v\ta\tb\n" );
+        var expected = new ArrayList<List<String>>();
+        for( var i = 0; i < 10000; i++ ) {
+            var line = List.of( "v" + i, "a" + i % 120, "b" + i % 30 );
+            left.append( String.join( "\t", line ) ).append( '\n' );
+            var joined = new ArrayList<>( line );
+            joined.addAll( dimension.getOrDefault( line.subList( 1, 3 ), List.of( "" ) ) );
+            expected.add( joined );
+        }
+
+        var tmp = tmpDirectory();
+        var join = new TsvJoin().withMemory( 16 * 1024 ).withPartitions( 8 ).withTmp( tmp );
+        try( var joined = join.left( read( left.toString() ), read( right.toString() ), "a", "b" ).toStream() ) {
+            var lines = joined.toList();
+            assertThat( lines.get( 0 ) ).containsExactly( "v", "a", "b", "w" );
+            assertThat( lines.subList( 1, lines.size() ) ).containsExactlyInAnyOrderElementsOf( expected );
+        }
+        try( var files = Files.list( tmp ) ) {
+            assertThat( files ).isEmpty();
+        }
+    }
+
+    private static TsvStream read( String tsv ) {
+        return ContentReader.read( tsv, Tsv.tsv.ofSeparatedValues() );
+    }
+}
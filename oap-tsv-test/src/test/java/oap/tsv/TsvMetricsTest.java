@@ -0,0 +1,147 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import oap.io.content.ContentReader;
+import oap.tsv.mapper.Configuration;
+import oap.tsv.mapper.Mapper;
+import oap.tsv.test.TmpFiles;
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static oap.io.IoStreams.Encoding.PLAIN;
+import static oap.tsv.LinePredicate.eq;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TsvMetricsTest extends TmpFiles {
+    private static final String TSV = "a\tb\n1\t2\n3\n5\t6\n";
+
+    @Test
+    public void parser() {
+        var metrics = new TsvMetrics( "feed" );
+
+        assertThat( Tsv.tsv.withMetrics( metrics ).from( new ByteArrayInputStream( TSV.getBytes( UTF_8 ) ), UTF_8 ).toList() )
+            .hasSize( 4 );
+        assertThat( metrics.rows.sum() ).isEqualTo( 4 );
+        assertThat( metrics.bytes.sum() ).isEqualTo( TSV.length() );
+    }
+
+    @Test
+    public void parserFromPath() throws IOException {
+        var path = tmpFile( TSV );
+        var metrics = new TsvMetrics( "feed" );
+        var url = new TsvMetrics( "feed" );
+
+        assertThat( Tsv.tsv.withMetrics( metrics ).fromPath( path ).toList() ).hasSize( 4 );
+        assertThat( Tsv.tsv.withMetrics( url ).fromUrl( path.toUri().toURL(), PLAIN, p -> {} ).toList() ).hasSize( 4 );
+        for( var m : List.of( metrics, url ) ) {
+            assertThat( m.rows.sum() ).isEqualTo( 4 );
+            assertThat( m.bytes.sum() ).isEqualTo( TSV.length() );
+        }
+    }
+
+    @Test
+    public void bytesParser() {
+        var metrics = new TsvMetrics( "feed" );
+
+        assertThat( ContentReader.read( TSV, new TsvBytesParser().withMetrics( metrics ).filter( eq( 0, "3" ), true ).ofSeparatedValues() )
+            .toList() )
+            .containsExactly( List.of( "a", "b" ), List.of( "3" ) );
+        assertThat( metrics.snapshot() )
+            .containsEntry( "rows", 4L )
+            .containsEntry( "filtered", 2L )
+            .containsEntry( "bytes", ( long ) TSV.length() );
+    }
+
+    @Test
+    public void selectedParser() {
+        var metrics = new TsvMetrics( "feed" );
+        var outer = new TsvMetrics( "feed" );
+
+        assertThat( Tsv.tsv.withMetrics( metrics ).select( "b" ).from( new ByteArrayInputStream( TSV.getBytes( UTF_8 ) ), UTF_8 ).toList() )
+            .containsExactly( List.of( "b" ), List.of( "2" ), List.of( "" ), List.of( "6" ) );
+        assertThat( Tsv.tsv.select( "b" ).withMetrics( outer ).from( new ByteArrayInputStream( TSV.getBytes( UTF_8 ) ), UTF_8 ).toList() )
+            .hasSize( 4 );
+        for( var m : List.of( metrics, outer ) ) {
+            assertThat( m.rows.sum() ).isEqualTo( 4 );
+            assertThat( m.bytes.sum() ).isEqualTo( TSV.length() );
+        }
+    }
+
+    @Test
+    public void bytesParserFromReader() {
+        var metrics = new TsvMetrics( "feed" );
+
+        assertThat( new TsvBytesParser().withMetrics( metrics ).filter( eq( 0, "3" ), true ).from( new StringReader( TSV ) ).toList() )
+            .containsExactly( List.of( "a", "b" ), List.of( "3" ) );
+        assertThat( metrics.snapshot() )
+            .containsEntry( "rows", 4L )
+            .containsEntry( "filtered", 2L );
+        assertThat( metrics.splitNanos.sum() ).isPositive();
+    }
+
+    @Test
+    public void inputStream() throws IOException {
+        var metrics = new TsvMetrics( "feed" );
+        var is = new TsvInputStream( new ByteArrayInputStream( TSV.getBytes( UTF_8 ) ), new byte[1024] );
+        is.metrics = metrics;
+
+        while( is.readCells() ) {}
+
+        assertThat( metrics.rows.sum() ).isEqualTo( 4 );
+        assertThat( metrics.bytes.sum() ).isEqualTo( TSV.length() );
+    }
+
+    @Test
+    public void configuration() {
+        var metrics = new TsvMetrics( "feed" );
+        var config = new Configuration( new Configuration.Column( 0, "a" ), new Configuration.Column( 1, "b" ) )
+            .withColumnsNumber( 2 )
+            .withValidateInput( true )
+            .withMetrics( metrics );
+
+        assertThat( config.configure( ContentReader.read( TSV, Tsv.tsv.ofSeparatedValues() ) )
+            .mapToObj( Mapper.of( Bean.class, config ) ) )
+            .containsExactly( new Bean( 1, 2 ), new Bean( 5, 6 ) );
+        assertThat( metrics.rejected.sum() ).isEqualTo( 1 );
+        assertThat( metrics.mapNanos.sum() ).isPositive();
+    }
+
+    @Test
+    public void registry() {
+        var registered = new ArrayList<TsvMetrics>();
+        var metrics = new TsvMetrics( "feed" ).register( registered::add );
+
+        assertThat( registered ).containsExactly( metrics );
+    }
+
+    record Bean( int a, int b ) {}
+}
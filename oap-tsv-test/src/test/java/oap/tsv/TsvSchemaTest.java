@@ -0,0 +1,70 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TsvSchemaTest {
+    @Test
+    public void shared() {
+        var schema = TsvSchema.of( "a", "b", "c" );
+
+        assertThat( TsvSchema.of( List.of( "a", "b", "c" ) ) ).isSameAs( schema );
+        assertThat( schema.indexOf( "b" ) ).isEqualTo( 1 );
+        assertThat( schema.indexOf( "x" ) ).isEqualTo( -1 );
+        assertThat( schema.indices( "c", "x", "a" ) ).containsExactly( 2, -1, 0 );
+        assertThatThrownBy( () -> schema.require( "x" ) ).isInstanceOf( IllegalArgumentException.class );
+    }
+
+    @Test
+    public void bytes() throws IOException {
+        var schema = TsvSchema.of( "country", "страна", "id" );
+        var name = "страна".getBytes( UTF_8 );
+
+        assertThat( schema.indexOf( name, 0, name.length ) ).isEqualTo( 1 );
+        assertThat( schema.indexOf( name, 0, 2 ) ).isEqualTo( -1 );
+
+        var is = new TsvInputStream( new ByteArrayInputStream( "id\tcountry\n".getBytes( UTF_8 ) ), new byte[1024] );
+        assertThat( is.readCells() ).isTrue();
+        assertThat( schema.indexOf( is.line, 0 ) ).isEqualTo( 2 );
+        assertThat( schema.indexOf( is.line, 1 ) ).isEqualTo( 0 );
+    }
+
+    @Test
+    public void duplicatedNames() {
+        var schema = TsvSchema.of( "a", "b", "a" );
+
+        assertThat( schema.indexOf( "a" ) ).isEqualTo( 0 );
+        assertThat( schema.indexOf( "a".getBytes( UTF_8 ), 0, 1 ) ).isEqualTo( 0 );
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import oap.io.content.ContentReader;
+import oap.tsv.test.TmpFiles;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+import static oap.testng.Asserts.assertString;
+import static oap.tsv.TsvSorter.Key.dateTime;
+import static oap.tsv.TsvSorter.Key.numeric;
+import static oap.tsv.TsvSorter.Key.string;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class TsvSorterTest extends TmpFiles {
+    private static final String TSV = """
+        name\tcount\tts
+        b\t10\t2020-01-02T00:00:00Z
+        a\t-5\t1577836800000
+        c\t\t
+        b\t2.5\t2020-01-01T12:00:00+01:00
+        """;
+
+    @Test
+    public void sort() {
+        assertString( read( TSV ).sort( string( "name" ) ).toTsvString() ).isEqualTo( """
+            name\tcount\tts
+            a\t-5\t1577836800000
+            b\t10\t2020-01-02T00:00:00Z
+            b\t2.5\t2020-01-01T12:00:00+01:00
+            c\t\t
+            """ );
+        assertString( read( TSV ).sort( numeric( "count" ).descending() ).toTsvString() ).isEqualTo( """
+            name\tcount\tts
+            b\t10\t2020-01-02T00:00:00Z
+            b\t2.5\t2020-01-01T12:00:00+01:00
+            a\t-5\t1577836800000
+            c\t\t
+            """ );
+        assertString( read( TSV ).sort( dateTime( "ts" ) ).toTsvString() ).isEqualTo( """
+            name\tcount\tts
+            c\t\t
+            a\t-5\t1577836800000
+            b\t2.5\t2020-01-01T12:00:00+01:00
+            b\t10\t2020-01-02T00:00:00Z
+            """ );
+    }
+
+    @Test
+    public void external() throws IOException {
+        var random = new Random( 1 );
+        var tsv = new StringBuilder( "key\tvalue\tindex\n" );
+        var expected = new ArrayList<List<String>>();
+        for( var i = 0; i < 20000; i++ ) {
+            var line = List.of( "k" + random.nextInt( 500 ), String.valueOf( random.nextInt( 100 ) ), String.valueOf( i ) );
+            expected.add( line );
+            tsv.append( String.join( "\t", line ) ).append( '\n' );
+        }
+        expected.sort( Comparator.<List<String>, String>comparing( line -> line.get( 0 ) )
+            .thenComparing( line -> -Integer.parseInt( line.get( 1 ) ) ) );
+
+        var tmp = tmpDirectory();
+        var sorter = new TsvSorter().withMemory( 64 * 1024 ).withMergeFactor( 4 ).withTmp( tmp );
+        try( var sorted = sorter.sort( read( tsv.toString() ), string( "key" ), numeric( "value" ).descending() )
+            .stripHeaders()
+            .toStream() ) {
+            assertThat( sorted.toList() ).isEqualTo( expected );
+        }
+        try( var files = Files.list( tmp ) ) {
+            assertThat( files ).isEmpty();
+        }
+    }
+
+    @Test
+    public void unknownKey() {
+        assertThatThrownBy( () -> read( "" ).sort( string( "name" ) ) )
+            .isInstanceOf( IllegalArgumentException.class );
+        assertThatThrownBy( () -> read( TSV ).sort( string( "missing" ) ) )
+            .isInstanceOf( IllegalArgumentException.class );
+    }
+
+    private static TsvStream read( String tsv ) {
+        return ContentReader.read( tsv, Tsv.tsv.ofSeparatedValues() );
+    }
+}
@@ -182,4 +182,28 @@ public class TsvStreamTest {
             .containsExactly( 1, 1 );
     }
 
+    @Test
+    public void parallel() {
+        var tsv = new StringBuilder( "a\tb\n" );
+        for( var i = 0; i < 10000; i++ ) tsv.append( i ).append( '\t' ).append( i * 2 ).append( '\n' );
+
+        var stream = ContentReader.read( tsv.toString(), Tsv.tsv.ofSeparatedValues() ).withHeaders().parallel();
+        assertThat( stream.isParallel() ).isTrue();
+        assertString( stream
+            .map( line -> List.of( line.get( 1 ), line.get( 0 ) ) )
+            .map( line -> List.of( line.get( 1 ), line.get( 0 ) ) )
+            .toTsvString() )
+            .isEqualTo( tsv.toString() );
+        assertThat( ContentReader.read( tsv.toString(), Tsv.tsv.ofSeparatedValues() ).parallel().withHeaders().toList() )
+            .hasSize( 10001 )
+            .startsWith( List.of( "a", "b" ), List.of( "0", "0" ) );
+    }
+
+    @Test( expectedExceptions = IllegalStateException.class )
+    public void toTsvOutputStreamParallel() {
+        ContentReader.read( "a\tb\tc\n1\t2\t3\n1\t2\t3", Tsv.tsv.ofSeparatedValues() )
+            .withHeaders()
+            .parallel()
+            .collect( TsvStream.Collectors.toTsvOutputStream( new ByteArrayOutputStream() ) );
+    }
 }
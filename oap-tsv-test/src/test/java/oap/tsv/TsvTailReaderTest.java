@@ -0,0 +1,160 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import oap.tsv.test.TmpFiles;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TsvTailReaderTest extends TmpFiles {
+    @Test
+    public void completeLines() throws IOException {
+        var file = tmpPath( "log.tsv" );
+        try( var reader = new TsvTailReader( file ).withSkipHeaders( true ) ) {
+            assertThat( reader.poll() ).isEmpty();
+
+            append( file, "a\tb\n1\t2\n3\t" );
+            assertThat( poll( reader ) ).containsExactly( List.of( "1", "2" ) );
+            assertThat( reader.offset() ).isEqualTo( 8 );
+
+            append( file, "4\n" );
+            assertThat( poll( reader ) ).containsExactly( List.of( "3", "4" ) );
+            assertThat( reader.poll() ).isEmpty();
+        }
+    }
+
+    @Test
+    public void resume() throws IOException {
+        var file = tmpPath( "log.tsv" );
+        append( file, "1\t2\n" );
+        try( var reader = new TsvTailReader( file ) ) {
+            assertThat( poll( reader ) ).containsExactly( List.of( "1", "2" ) );
+            reader.commit();
+        }
+
+        append( file, "3\t4\n" );
+        try( var reader = new TsvTailReader( file ) ) {
+            assertThat( poll( reader ) ).containsExactly( List.of( "3", "4" ) );
+        }
+    }
+
+    @Test
+    public void corruptedCheckpoint() throws IOException {
+        var file = tmpPath( "log.tsv" );
+        append( file, "1\t2\n" );
+        try( var reader = new TsvTailReader( file ) ) {
+            poll( reader );
+            reader.commit();
+        }
+
+        var checkpoint = file.resolveSibling( "log.tsv.offset" );
+        Files.writeString( checkpoint, Files.readString( checkpoint ).replaceAll( "\t.*", "\tx\n" ) );
+        try( var reader = new TsvTailReader( file ) ) {
+            assertThat( poll( reader ) ).containsExactly( List.of( "1", "2" ) );
+            reader.commit();
+        }
+        try( var files = Files.list( file.getParent() ) ) {
+            assertThat( files ).containsOnly( file, checkpoint );
+        }
+    }
+
+    @Test
+    public void rotation() throws IOException {
+        var file = tmpPath( "log.tsv" );
+        append( file, "1\n" );
+        try( var reader = new TsvTailReader( file ) ) {
+            assertThat( poll( reader ) ).containsExactly( List.of( "1" ) );
+
+            append( file, "2\n3" );
+            Files.move( file, file.resolveSibling( "log.tsv.1" ) );
+            append( file, "4\n" );
+
+            assertThat( pollAll( reader ) ).containsExactly( List.of( "2" ), List.of( "3" ), List.of( "4" ) );
+        }
+    }
+
+    @Test
+    public void truncation() throws IOException {
+        var file = tmpPath( "log.tsv" );
+        append( file, "1\n2\n" );
+        try( var reader = new TsvTailReader( file ) ) {
+            assertThat( poll( reader ) ).containsExactly( List.of( "1" ), List.of( "2" ) );
+
+            Files.writeString( file, "3\n", UTF_8, TRUNCATE_EXISTING );
+            assertThat( poll( reader ) ).containsExactly( List.of( "3" ) );
+        }
+    }
+
+    @Test
+    public void follow() throws Exception {
+        var file = tmpPath( "log.tsv" );
+        var rows = new ArrayList<String>();
+        var reader = new TsvTailReader( file ).withPollInterval( 10 );
+        var thread = new Thread( () -> reader.follow( row -> {
+            synchronized( rows ) {
+                rows.add( row.get( 0 ) );
+            }
+        } ) );
+        thread.start();
+
+        for( var i = 0; i < 20; i++ ) append( file, i + "\n" );
+        for( var i = 0; i < 100; i++ ) {
+            synchronized( rows ) {
+                if( rows.size() == 20 ) break;
+            }
+            Thread.sleep( 20 );
+        }
+        reader.close();
+        thread.join();
+
+        assertThat( rows ).hasSize( 20 ).startsWith( "0" ).endsWith( "19" );
+        assertThat( Files.readString( file.resolveSibling( "log.tsv.offset" ) ) ).endsWith( "\t" + reader.offset() + "\n" );
+    }
+
+    private static List<List<String>> pollAll( TsvTailReader reader ) {
+        var rows = new ArrayList<List<String>>();
+        for( var i = 0; i < 10; i++ ) rows.addAll( reader.poll() );
+        return rows;
+    }
+
+    private static List<List<String>> poll( TsvTailReader reader ) {
+        return new ArrayList<>( reader.poll() );
+    }
+
+    private static void append( Path file, String content ) throws IOException {
+        Files.writeString( file, content, UTF_8, CREATE, APPEND );
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import org.testng.annotations.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static oap.testng.Asserts.assertString;
+
+public class TsvWriterTest {
+    @Test
+    public void write() throws IOException {
+        var out = new ByteArrayOutputStream();
+        try( var writer = new TsvWriter( out ) ) {
+            writer.write( List.of( 1, "a\tb", "c\\d\n" ) );
+            writer.write( Arrays.asList( null, "", "я😀\"" ) );
+        }
+        assertString( out.toString( UTF_8 ) )
+            .isEqualTo( Printer.print( List.of( 1, "a\tb", "c\\d\n" ), Tsv.DELIMITER_TAB )
+                + Printer.print( Arrays.asList( null, "", "я😀\"" ), Tsv.DELIMITER_TAB ) );
+    }
+
+    @Test
+    public void writeQuoted() throws IOException {
+        var out = new ByteArrayOutputStream();
+        try( var writer = new TsvWriter( Channels.newChannel( out ), Tsv.DELIMITER_COMMA, true ) ) {
+            writer.write( List.of( 1, "\"2\\\"", 3 ) );
+        }
+        assertString( out.toString( UTF_8 ) ).isEqualTo( "\"1\",\"\"\"2\\\\\"\"\",\"3\"\n" );
+    }
+
+    @Test
+    public void cellLongerThanBuffer() throws IOException {
+        var out = new ByteArrayOutputStream();
+        var cell = "abcdefghij\tя".repeat( 10 );
+        try( var writer = new TsvWriter( out, null, Tsv.DELIMITER_TAB, false, 16 ) ) {
+            writer.cell( cell ).cell( cell ).endRow();
+        }
+        assertString( out.toString( UTF_8 ) ).isEqualTo( Printer.print( List.of( cell, cell ), Tsv.DELIMITER_TAB ) );
+    }
+}
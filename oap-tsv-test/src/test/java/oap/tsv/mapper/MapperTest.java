@@ -26,11 +26,18 @@ package oap.tsv.mapper;
 
 import oap.io.content.ContentReader;
 import oap.tsv.Tsv;
+import oap.tsv.TsvRow;
+import org.joda.time.DateTime;
 import org.testng.annotations.Test;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static oap.io.content.ContentReader.ofJson;
 import static oap.testng.Asserts.contentOfTestResource;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.joda.time.DateTimeZone.UTC;
 
 public class MapperTest {
     @Test
@@ -60,5 +67,103 @@ public class MapperTest {
             .containsExactly( new Bean( 1, 2 ), new Bean( 4, 5 ) );
     }
 
+    @Test
+    public void skipsConstructorsOfOtherColumns() {
+        var config = new Configuration( new Configuration.Column( 0, "a" ), new Configuration.Column( 1, "b" ) );
+
+        assertThat( Instantiator.of( Overloaded.class, config ) ).isNotNull();
+        assertThat( ContentReader.read( "1\t2", Tsv.tsvBytes.ofSeparatedValues() )
+            .mapToObj( Mapper.of( Overloaded.class, config ) ) )
+            .containsExactly( new Overloaded( 1, 2 ) );
+    }
+
+    @Test
+    public void typedColumns() {
+        var config = new Configuration(
+            new Configuration.Column( 0, "count", Configuration.Column.Type.INT ),
+            new Configuration.Column( 1, "price" ),
+            new Configuration.Column( 2, "kind" ),
+            new Configuration.Column( 3, "time" ) );
+
+        assertThat( ContentReader.read( "count\tprice\tkind\ttime\n3\t1.5\tA\t0\n4\t2\tB\t2020-01-01T00:00:00Z",
+            Tsv.tsvBytes.ofSeparatedValues() )
+            .withHeaders()
+            .mapToObj( Mapper.of( TypedBean.class, config ) ) )
+            .containsExactly(
+                new TypedBean( 3L, 1.5, Kind.A, new DateTime( 0, UTC ) ),
+                new TypedBean( 4L, 2, Kind.B, new DateTime( 2020, 1, 1, 0, 0, UTC ) ) );
+    }
+
+    @Test
+    public void signedNumbers() {
+        var config = new Configuration( new Configuration.Column( 0, "a" ), new Configuration.Column( 1, "b" ) );
+        for( var parser : List.of( Tsv.tsv, Tsv.tsvBytes ) )
+            assertThat( ContentReader.read( "+1\t-2", parser.ofSeparatedValues() ).mapToObj( Mapper.of( Bean.class, config ) ) )
+                .containsExactly( new Bean( 1, -2 ) );
+    }
+
+    @Test
+    public void constructorFailuresAreNotRetried() {
+        var config = new Configuration( new Configuration.Column( 0, "a" ), new Configuration.Column( 1, "b" ) );
+        Validated.created.set( 0 );
+
+        assertThatThrownBy( () -> ContentReader.read( "2\t1", Tsv.tsvBytes.ofSeparatedValues() )
+            .mapToObj( Mapper.of( Validated.class, config ) ).toList() )
+            .isInstanceOf( IllegalArgumentException.class )
+            .hasMessage( "a > b" );
+        assertThat( Validated.created.get() ).isEqualTo( 1 );
+    }
+
+    @Test
+    public void internedColumns() {
+        var config = new Configuration( new Configuration.Column( 0, "country" ).interned() );
+        var lines = config.configure( ContentReader.read( "country\tid\nus\t1\nus\t2", Tsv.tsvBytes.ofSeparatedValues() ) )
+            .toTsv().data;
+
+        assertThat( lines ).containsExactly( List.of( "us", "1" ), List.of( "us", "2" ) );
+        assertThat( lines.get( 0 ).get( 0 ) ).isSameAs( lines.get( 1 ).get( 0 ) );
+        assertThat( lines.get( 0 ) ).isInstanceOf( TsvRow.class );
+    }
+
+    @Test
+    public void internedColumnsByName() {
+        var config = new Configuration( new Configuration.Column( "country" ).interned() );
+        var lines = config.configure( ContentReader.read( "id\tcountry\n1\tus\n2\tus", Tsv.tsv.ofSeparatedValues() ) )
+            .toTsv().data;
+
+        assertThat( lines ).containsExactly( List.of( "1", "us" ), List.of( "2", "us" ) );
+        assertThat( lines.get( 0 ).get( 1 ) ).isSameAs( lines.get( 1 ).get( 1 ) );
+    }
+
+    @Test
+    public void columnsBySchema() {
+        var stream = ContentReader.read( "c\tb\ta\n3\t2\t1", Tsv.tsv.ofSeparatedValues() ).withHeaders();
+        var config = new Configuration( new Configuration.Column( "a" ), new Configuration.Column( "b" ) );
+
+        assertThat( stream.mapToObj( Mapper.of( Bean.class, config, stream.schema() ) ) )
+            .containsExactly( new Bean( 1, 2 ) );
+    }
+
     record Bean( int a, int b ) {}
+
+    record TypedBean( long count, double price, Kind kind, DateTime time ) {}
+
+    enum Kind {
+        A, B
+    }
+
+    record Validated( int a, int b ) {
+        static final AtomicInteger created = new AtomicInteger();
+
+        Validated {
+            created.incrementAndGet();
+            if( a > b ) throw new IllegalArgumentException( "a > b" );
+        }
+    }
+
+    record Overloaded( int a, int b ) {
+        Overloaded( String x, String y ) {
+            this( Integer.parseInt( x ), Integer.parseInt( y ) );
+        }
+    }
 }
@@ -0,0 +1,66 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv.mapper;
+
+import oap.io.content.ContentReader;
+import oap.tsv.Tsv;
+import oap.tsv.test.TmpFiles;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SampledErrorSinkTest extends TmpFiles {
+    private static final String TSV = "a\tb\n1\t2\n3\n5\t6\n7\n8\t9\t10\n";
+
+    @Test
+    public void countsAndSamples() {
+        var sink = new SampledErrorSink( 2, 1 );
+        var config = new Configuration( new Configuration.Column( 0, "a" ), new Configuration.Column( 1, "b" ) )
+            .withColumnsNumber( 2 )
+            .withValidateInput( true )
+            .withErrorSink( sink );
+
+        assertThat( config.configure( ContentReader.read( TSV, Tsv.tsv.ofSeparatedValues() ) ).toList() )
+            .containsExactly( List.of( "a", "b" ), List.of( "1", "2" ), List.of( "5", "6" ) );
+        assertThat( sink.counts() ).containsEntry( Configuration.WRONG_COLUMNS_NUMBER, 3L );
+        assertThat( sink.samples() ).containsExactly( List.of( "7" ), List.of( "8", "9", "10" ) );
+    }
+
+    @Test
+    public void quarantine() throws IOException {
+        var path = tmpPath( "quarantine.tsv" );
+        try( var sink = new SampledErrorSink().withQuarantine( path ) ) {
+            sink.error( "kind", List.of( "x", "y" ) );
+            sink.error( "kind", List.of() );
+            sink.error( "kind", List.of( "z" ) );
+        }
+
+        assertThat( Files.readString( path ) ).isEqualTo( "x\ty\n\nz\n" );
+    }
+}
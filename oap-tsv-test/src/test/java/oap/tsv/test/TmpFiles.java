@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv.test;
+
+import org.testng.annotations.AfterMethod;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Base of tests working with files: they live in a temporary directory of the test method, deleted with everything
+ * in it (sidecars, checkpoints, spills) after the method.
+ */
+public abstract class TmpFiles {
+    private Path directory;
+
+    protected Path tmpDirectory() throws IOException {
+        if( directory == null ) directory = Files.createTempDirectory( getClass().getSimpleName() );
+        return directory;
+    }
+
+    protected Path tmpPath( String name ) throws IOException {
+        return tmpDirectory().resolve( name );
+    }
+
+    protected Path tmpFile( String content ) throws IOException {
+        return Files.writeString( Files.createTempFile( tmpDirectory(), "", ".tsv" ), content, UTF_8 );
+    }
+
+    @AfterMethod( alwaysRun = true )
+    public void deleteTmpFiles() throws IOException {
+        if( directory == null ) return;
+        try( var paths = Files.walk( directory ) ) {
+            for( var path : paths.sorted( Comparator.reverseOrder() ).toList() ) Files.delete( path );
+        }
+        directory = null;
+    }
+}
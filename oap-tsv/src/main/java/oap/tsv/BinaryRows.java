@@ -0,0 +1,142 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import oap.util.Stream;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterators;
+import java.util.stream.StreamSupport;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+
+/**
+ * Spill file row format: varint cell count, then every cell as a varint length and UTF-8 bytes.
+ */
+final class BinaryRows {
+    static final int BUFFER_SIZE = 64 * 1024;
+
+    private BinaryRows() {
+    }
+
+    static void write( DataOutputStream out, List<String> cells ) throws IOException {
+        writeVarInt( out, cells.size() );
+        for( var cell : cells ) {
+            var bytes = cell.getBytes( UTF_8 );
+            writeVarInt( out, bytes.length );
+            out.write( bytes );
+        }
+    }
+
+    /**
+     * @return null at the end of the file
+     */
+    static String[] read( DataInputStream in ) throws IOException {
+        var size = readVarInt( in );
+        if( size < 0 ) return null;
+
+        var cells = new String[size];
+        for( var i = 0; i < size; i++ ) {
+            var bytes = new byte[readVarInt( in )];
+            in.readFully( bytes );
+            cells[i] = new String( bytes, UTF_8 );
+        }
+        return cells;
+    }
+
+    static Stream<List<String>> stream( Path path ) {
+        try {
+            var in = new DataInputStream( new BufferedInputStream( Files.newInputStream( path ), BUFFER_SIZE ) );
+            var rows = new Iterator<List<String>>() {
+                private String[] next = read( in );
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public List<String> next() {
+                    if( next == null ) throw new NoSuchElementException();
+                    var row = next;
+                    try {
+                        next = read( in );
+                    } catch( IOException e ) {
+                        throw new UncheckedIOException( e );
+                    }
+                    return Arrays.asList( row );
+                }
+            };
+            return Stream.of( StreamSupport.stream( Spliterators.spliteratorUnknownSize( rows, ORDERED | NONNULL ), false )
+                .onClose( () -> {
+                    try {
+                        in.close();
+                    } catch( IOException e ) {
+                        throw new UncheckedIOException( e );
+                    }
+                } ) );
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private static void writeVarInt( DataOutputStream out, int value ) throws IOException {
+        while( ( value & ~0x7F ) != 0 ) {
+            out.write( value & 0x7F | 0x80 );
+            value >>>= 7;
+        }
+        out.write( value );
+    }
+
+    /**
+     * @return -1 at the end of the file
+     */
+    private static int readVarInt( DataInputStream in ) throws IOException {
+        var value = 0;
+        for( var shift = 0; shift < 32; shift += 7 ) {
+            var b = in.read();
+            if( b < 0 ) {
+                if( shift == 0 ) return -1;
+                throw new EOFException();
+            }
+            value |= ( b & 0x7F ) << shift;
+            if( ( b & 0x80 ) == 0 ) return value;
+        }
+        throw new IOException( "malformed row" );
+    }
+}
@@ -0,0 +1,61 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+/**
+ * Bloom filter sized for {@code expected} keys at the false positive rate {@code fpp}, the bit indices are derived
+ * from the two halves of the key hash. A false positive drops a row with a new key.
+ */
+public class BloomKeySet extends KeySet {
+    private final long[] bits;
+    private final long size;
+    private final int hashes;
+
+    public BloomKeySet( long expected, double fpp ) {
+        if( expected <= 0 ) throw new IllegalArgumentException( "expected " + expected );
+        if( fpp <= 0 || fpp >= 1 ) throw new IllegalArgumentException( "fpp " + fpp );
+
+        var bits = Math.max( 64, ( long ) Math.ceil( -expected * Math.log( fpp ) / ( Math.log( 2 ) * Math.log( 2 ) ) ) );
+        this.bits = new long[Math.toIntExact( ( bits + 63 ) / 64 )];
+        this.size = this.bits.length * 64L;
+        this.hashes = Math.max( 1, ( int ) Math.round( ( double ) size / expected * Math.log( 2 ) ) );
+    }
+
+    @Override
+    boolean add( long h1, long h2 ) {
+        var added = false;
+        var hash = h1;
+        for( var i = 0; i < hashes; i++, hash += h2 ) {
+            var index = Math.floorMod( hash, size );
+            var mask = 1L << index;
+            var word = ( int ) ( index >>> 6 );
+            if( ( bits[word] & mask ) == 0 ) {
+                bits[word] |= mask;
+                added = true;
+            }
+        }
+        return added;
+    }
+}
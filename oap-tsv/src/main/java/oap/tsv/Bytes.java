@@ -0,0 +1,127 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+public final class Bytes {
+    private static final byte[] LONG_MAX_DIGITS = "9223372036854775807".getBytes( UTF_8 );
+    private static final byte[] LONG_MIN_DIGITS = "9223372036854775808".getBytes( UTF_8 );
+    private static final double[] POW10 = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22 };
+
+    private Bytes() {
+    }
+
+    public static int hash( byte[] bytes, int offset, int length ) {
+        var hash = 1;
+        for( var i = offset; i < offset + length; i++ ) hash = 31 * hash + bytes[i];
+        return hash;
+    }
+
+    public static boolean equals( byte[] bytes, int offset, int length, byte[] value ) {
+        return length == value.length && Arrays.equals( bytes, offset, offset + length, value, 0, length );
+    }
+
+    public static boolean startsWith( byte[] bytes, int offset, int length, byte[] prefix ) {
+        return length >= prefix.length && Arrays.equals( bytes, offset, offset + prefix.length, prefix, 0, prefix.length );
+    }
+
+    /**
+     * ASCII digits with an optional sign, in the long range
+     */
+    public static boolean isLong( byte[] bytes, int offset, int length ) {
+        var signed = length > 0 && ( bytes[offset] == '-' || bytes[offset] == '+' );
+        var start = signed ? 1 : 0;
+        var digits = length - start;
+        if( digits == 0 || digits > 19 ) return false;
+
+        for( var i = start; i < length; i++ ) {
+            var b = bytes[offset + i];
+            if( b < '0' || b > '9' ) return false;
+        }
+
+        return digits < 19 || Arrays.compare( bytes, offset + start, offset + length,
+            bytes[offset] == '-' ? LONG_MIN_DIGITS : LONG_MAX_DIGITS, 0, 19 ) <= 0;
+    }
+
+    /**
+     * Anything but {@link #isLong(byte[], int, int)} goes through {@link Long#parseLong(String)}.
+     */
+    public static long parseLong( byte[] bytes, int offset, int length ) {
+        if( !isLong( bytes, offset, length ) ) return Long.parseLong( new String( bytes, offset, length, UTF_8 ) );
+
+        var negative = bytes[offset] == '-';
+        var result = 0L;
+        for( var i = negative || bytes[offset] == '+' ? 1 : 0; i < length; i++ ) result = result * 10 - ( bytes[offset + i] - '0' );
+
+        return negative ? result : -result;
+    }
+
+    /**
+     * Anything but {@link #isLong(byte[], int, int)} in the int range goes through {@link Integer#parseInt(String)}.
+     */
+    public static int parseInt( byte[] bytes, int offset, int length ) {
+        if( isLong( bytes, offset, length ) ) {
+            var value = parseLong( bytes, offset, length );
+            if( value == ( int ) value ) return ( int ) value;
+        }
+        return Integer.parseInt( new String( bytes, offset, length, UTF_8 ) );
+    }
+
+    /**
+     * Plain decimals with up to 15 significant digits are computed exactly from the bytes, anything else goes through {@link Double#parseDouble(String)}.
+     */
+    public static double parseDouble( byte[] bytes, int offset, int length ) {
+        var negative = length > 0 && bytes[offset] == '-';
+        var mantissa = 0L;
+        var digits = 0;
+        var scale = -1;
+        var any = false;
+        for( var i = negative ? 1 : 0; i < length; i++ ) {
+            var b = bytes[offset + i];
+            if( b == '.' && scale < 0 ) scale = 0;
+            else if( b >= '0' && b <= '9' && digits < 15 && scale < POW10.length - 1 ) {
+                mantissa = mantissa * 10 + ( b - '0' );
+                if( mantissa > 0 ) digits++;
+                if( scale >= 0 ) scale++;
+                any = true;
+            } else return Double.parseDouble( new String( bytes, offset, length, UTF_8 ) );
+        }
+        if( !any ) return Double.parseDouble( new String( bytes, offset, length, UTF_8 ) );
+
+        var value = scale > 0 ? mantissa / POW10[scale] : mantissa;
+        return negative ? -value : value;
+    }
+
+    public static boolean parseBoolean( byte[] bytes, int offset, int length ) {
+        return length == 4
+            && ( bytes[offset] | 0x20 ) == 't'
+            && ( bytes[offset + 1] | 0x20 ) == 'r'
+            && ( bytes[offset + 2] | 0x20 ) == 'u'
+            && ( bytes[offset + 3] | 0x20 ) == 'e';
+    }
+}
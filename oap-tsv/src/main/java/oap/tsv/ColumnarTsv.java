@@ -0,0 +1,263 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * {@link Tsv} stored column by column: low-cardinality columns are dictionary encoded with one or two byte codes,
+ * the rest are kept as a UTF-8 arena with offsets. {@link #data} is a read-only view of the rows.
+ */
+public class ColumnarTsv extends Tsv {
+    public static final int MAX_DICTIONARY_SIZE = 1 << 16;
+
+    private final Column[] columns;
+    private final int size;
+
+    private ColumnarTsv( List<String> headers, Column[] columns, int size, int[] widths ) {
+        super( headers, new Rows( columns, size, widths ) );
+        this.columns = columns;
+        this.size = size;
+    }
+
+    public static ColumnarTsv of( Tsv tsv ) {
+        var builder = new Builder( tsv.headers );
+        tsv.data.forEach( builder::add );
+        return builder.build();
+    }
+
+    public static ColumnarTsv of( TsvStream stream ) {
+        var builder = new Builder( stream.headers() );
+        stream.mapToObj( line -> line ).forEach( builder::add );
+        return builder.build();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String get( int row, int column ) {
+        return columns[column].get( row );
+    }
+
+    /**
+     * @return true if the column is dictionary encoded
+     */
+    public boolean isDictionary( int column ) {
+        return columns[column] instanceof DictionaryColumn;
+    }
+
+    public static class Builder {
+        private final List<String> headers;
+        private final List<ColumnBuilder> columns = new ArrayList<>();
+        private int size = 0;
+        private int width = -1;
+        private IntArrayList widths;
+
+        public Builder( List<String> headers ) {
+            this.headers = headers;
+        }
+
+        public Builder add( List<String> row ) {
+            if( width < 0 ) width = row.size();
+            if( widths == null && row.size() != width ) {
+                widths = new IntArrayList( size + 1 );
+                for( var i = 0; i < size; i++ ) widths.add( width );
+            }
+            if( widths != null ) widths.add( row.size() );
+
+            while( columns.size() < row.size() ) {
+                var column = new ColumnBuilder();
+                for( var i = 0; i < size; i++ ) column.add( "" );
+                columns.add( column );
+            }
+            for( var i = 0; i < columns.size(); i++ ) columns.get( i ).add( i < row.size() ? row.get( i ) : "" );
+            size++;
+            return this;
+        }
+
+        public ColumnarTsv build() {
+            var built = new Column[columns.size()];
+            for( var i = 0; i < built.length; i++ ) built[i] = columns.get( i ).build();
+            return new ColumnarTsv( headers, built, size, widths != null ? widths.toIntArray() : null );
+        }
+    }
+
+    private static final class ColumnBuilder {
+        private Object2IntOpenHashMap<String> dictionary = new Object2IntOpenHashMap<>();
+        private final IntArrayList codes = new IntArrayList();
+        private ArenaColumn arena;
+
+        private ColumnBuilder() {
+            dictionary.defaultReturnValue( -1 );
+        }
+
+        private void add( String value ) {
+            if( dictionary != null ) {
+                var code = dictionary.getInt( value );
+                if( code < 0 ) dictionary.put( value, code = dictionary.size() );
+                codes.add( code );
+                if( dictionary.size() > MAX_DICTIONARY_SIZE || codes.size() >= 1024 && dictionary.size() > codes.size() / 2 )
+                    toArena();
+            } else arena.add( value );
+        }
+
+        private void toArena() {
+            var values = values();
+            arena = new ArenaColumn();
+            for( var i = 0; i < codes.size(); i++ ) arena.add( values[codes.getInt( i )] );
+            dictionary = null;
+            codes.clear();
+            codes.trim();
+        }
+
+        private String[] values() {
+            var values = new String[dictionary.size()];
+            for( var entry : dictionary.object2IntEntrySet() ) values[entry.getIntValue()] = entry.getKey();
+            return values;
+        }
+
+        private Column build() {
+            if( dictionary == null ) return arena.trim();
+
+            var values = values();
+            if( values.length <= 1 << 8 ) {
+                var packed = new byte[codes.size()];
+                for( var i = 0; i < packed.length; i++ ) packed[i] = ( byte ) codes.getInt( i );
+                return new DictionaryColumn( values, packed, null );
+            }
+            var packed = new char[codes.size()];
+            for( var i = 0; i < packed.length; i++ ) packed[i] = ( char ) codes.getInt( i );
+            return new DictionaryColumn( values, null, packed );
+        }
+    }
+
+    private interface Column {
+        String get( int row );
+    }
+
+    private static final class DictionaryColumn implements Column {
+        private final String[] values;
+        private final byte[] bytes;
+        private final char[] chars;
+
+        private DictionaryColumn( String[] values, byte[] bytes, char[] chars ) {
+            this.values = values;
+            this.bytes = bytes;
+            this.chars = chars;
+        }
+
+        @Override
+        public String get( int row ) {
+            return values[bytes != null ? bytes[row] & 0xFF : chars[row]];
+        }
+    }
+
+    private static final class ArenaColumn implements Column {
+        private byte[] arena = new byte[1024];
+        private int[] offsets = new int[257];
+        private int size = 0;
+
+        private void add( String value ) {
+            var bytes = value.getBytes( UTF_8 );
+            var end = offsets[size];
+            if( arena.length - end < bytes.length ) {
+                if( ( long ) end + bytes.length > Integer.MAX_VALUE - 8 )
+                    throw new IllegalStateException( "column is larger than 2GB" );
+                arena = Arrays.copyOf( arena, ( int ) Math.min( Integer.MAX_VALUE - 8, Math.max( arena.length * 2L, end + bytes.length ) ) );
+            }
+            if( size + 1 == offsets.length ) offsets = Arrays.copyOf( offsets, offsets.length * 2 );
+
+            System.arraycopy( bytes, 0, arena, end, bytes.length );
+            offsets[++size] = end + bytes.length;
+        }
+
+        private ArenaColumn trim() {
+            arena = Arrays.copyOf( arena, offsets[size] );
+            offsets = Arrays.copyOf( offsets, size + 1 );
+            return this;
+        }
+
+        @Override
+        public String get( int row ) {
+            return new String( arena, offsets[row], offsets[row + 1] - offsets[row], UTF_8 );
+        }
+    }
+
+    private static final class Rows extends AbstractList<List<String>> implements RandomAccess {
+        private final Column[] columns;
+        private final int size;
+        private final int[] widths;
+
+        private Rows( Column[] columns, int size, int[] widths ) {
+            this.columns = columns;
+            this.size = size;
+            this.widths = widths;
+        }
+
+        @Override
+        public List<String> get( int index ) {
+            if( index < 0 || index >= size ) throw new IndexOutOfBoundsException( index );
+            return new Row( columns, index, widths != null ? widths[index] : columns.length );
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private static final class Row extends AbstractList<String> implements RandomAccess {
+        private final Column[] columns;
+        private final int row;
+        private final int size;
+
+        private Row( Column[] columns, int row, int size ) {
+            this.columns = columns;
+            this.row = row;
+            this.size = size;
+        }
+
+        @Override
+        public String get( int index ) {
+            if( index < 0 || index >= size ) throw new IndexOutOfBoundsException( index );
+            return columns[index].get( row );
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+}
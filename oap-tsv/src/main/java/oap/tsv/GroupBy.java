@@ -0,0 +1,283 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import oap.util.Stream;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.stream.Collector;
+import java.util.stream.IntStream;
+
+/**
+ * Aggregates a {@link TsvStream} by key columns. Every group is a single composite key string mapped to a slot of
+ * primitive arrays, so there is no boxing per row. A parallel stream aggregates per thread and merges the partial
+ * results. Groups come out in no particular order, empty cells are not aggregated.
+ */
+public class GroupBy {
+    private final TsvStream tsv;
+    private final int[] keys;
+
+    GroupBy( TsvStream tsv, int[] keys ) {
+        this.tsv = tsv;
+        this.keys = keys;
+    }
+
+    /**
+     * number of lines per group, in the {@code count} column
+     */
+    public TsvStream count() {
+        return aggregate( Op.COUNT, new int[0] );
+    }
+
+    public TsvStream sum( String... columns ) {
+        return sum( tsv.schema().require( columns ) );
+    }
+
+    public TsvStream sum( int... columns ) {
+        return aggregate( Op.SUM, columns );
+    }
+
+    public TsvStream min( String... columns ) {
+        return min( tsv.schema().require( columns ) );
+    }
+
+    public TsvStream min( int... columns ) {
+        return aggregate( Op.MIN, columns );
+    }
+
+    public TsvStream max( String... columns ) {
+        return max( tsv.schema().require( columns ) );
+    }
+
+    public TsvStream max( int... columns ) {
+        return aggregate( Op.MAX, columns );
+    }
+
+    private TsvStream aggregate( Op op, int[] columns ) {
+        var headers = headers( tsv.headers(), op, columns );
+        var data = headers.isEmpty() ? tsv : tsv.stripHeaders();
+        return data.collect( Collector.of(
+            () -> new Groups( keys, op, columns ),
+            Groups::add,
+            Groups::merge,
+            groups -> TsvStream.of( headers, groups.rows() ) ) );
+    }
+
+    private List<String> headers( List<String> headers, Op op, int[] columns ) {
+        if( headers.isEmpty() ) return List.of();
+
+        var result = new ArrayList<String>( keys.length + Math.max( columns.length, 1 ) );
+        for( var key : keys ) result.add( headers.get( key ) );
+        if( op == Op.COUNT ) result.add( "count" );
+        else for( var column : columns ) result.add( headers.get( column ) );
+        return result;
+    }
+
+    static String key( List<String> line, int[] keys ) {
+        if( keys.length == 1 ) return cell( line, keys[0] );
+
+        var length = 0;
+        for( var key : keys ) length += cell( line, key ).length() + 2;
+        var result = new StringBuilder( length );
+        for( var key : keys ) {
+            var cell = cell( line, key );
+            result.append( ( char ) ( cell.length() >>> 16 ) ).append( ( char ) cell.length() ).append( cell );
+        }
+        return result.toString();
+    }
+
+    static List<String> cells( String key, int size ) {
+        if( size == 1 ) return new ArrayList<>( List.of( key ) );
+
+        var result = new ArrayList<String>( size );
+        var position = 0;
+        for( var i = 0; i < size; i++ ) {
+            var length = key.charAt( position ) << 16 | key.charAt( position + 1 );
+            position += 2;
+            result.add( key.substring( position, position + length ) );
+            position += length;
+        }
+        return result;
+    }
+
+    private static String cell( List<String> line, int index ) {
+        return index < line.size() ? line.get( index ) : "";
+    }
+
+    enum Op {
+        COUNT, SUM, MIN, MAX
+    }
+
+    static class Groups {
+        private final int[] keys;
+        private final Op op;
+        private final int[] columns;
+        private final Object2IntOpenHashMap<String> slots = new Object2IntOpenHashMap<>();
+        private final Aggregate[] aggregates;
+        private String[] groups = new String[16];
+        private long[] counts = new long[16];
+        private int size = 0;
+
+        Groups( int[] keys, Op op, int[] columns ) {
+            this.keys = keys;
+            this.op = op;
+            this.columns = columns;
+            this.slots.defaultReturnValue( -1 );
+            this.aggregates = new Aggregate[columns.length];
+            for( var i = 0; i < columns.length; i++ ) aggregates[i] = new Aggregate( op );
+        }
+
+        void add( List<String> line ) {
+            var slot = slot( key( line, keys ) );
+            counts[slot]++;
+            for( var i = 0; i < columns.length; i++ ) aggregates[i].add( slot, cell( line, columns[i] ) );
+        }
+
+        Groups merge( Groups other ) {
+            for( var i = 0; i < other.size; i++ ) {
+                var slot = slot( other.groups[i] );
+                counts[slot] += other.counts[i];
+                for( var a = 0; a < aggregates.length; a++ ) aggregates[a].merge( slot, other.aggregates[a], i );
+            }
+            return this;
+        }
+
+        private int slot( String key ) {
+            var slot = slots.getInt( key );
+            if( slot >= 0 ) return slot;
+
+            slot = size++;
+            if( slot == groups.length ) {
+                groups = Arrays.copyOf( groups, slot * 2 );
+                counts = Arrays.copyOf( counts, slot * 2 );
+            }
+            groups[slot] = key;
+            for( var aggregate : aggregates ) aggregate.ensureCapacity( groups.length );
+            slots.put( key, slot );
+            return slot;
+        }
+
+        Stream<List<String>> rows() {
+            return Stream.of( IntStream.range( 0, size ).mapToObj( this::row ) );
+        }
+
+        private List<String> row( int slot ) {
+            var row = cells( groups[slot], keys.length );
+            if( op == Op.COUNT ) row.add( String.valueOf( counts[slot] ) );
+            else for( var aggregate : aggregates ) row.add( aggregate.toString( slot ) );
+            return row;
+        }
+    }
+
+    /**
+     * empty cells are absent values. Values stay {@code long} until the first cell which is not an integer
+     * or a sum overflowing {@code long}, then the column switches to {@code double}
+     */
+    static class Aggregate {
+        private final Op op;
+        private final BitSet present = new BitSet();
+        private long[] longs = new long[16];
+        private double[] doubles;
+
+        Aggregate( Op op ) {
+            this.op = op;
+        }
+
+        void ensureCapacity( int capacity ) {
+            if( longs != null && longs.length < capacity ) longs = Arrays.copyOf( longs, capacity );
+            if( doubles != null && doubles.length < capacity ) doubles = Arrays.copyOf( doubles, capacity );
+        }
+
+        void add( int slot, String cell ) {
+            if( cell.isEmpty() ) return;
+            if( longs != null ) {
+                try {
+                    add( slot, Long.parseLong( cell ) );
+                    return;
+                } catch( NumberFormatException e ) {
+                    toDoubles();
+                }
+            }
+            add( slot, Double.parseDouble( cell ) );
+        }
+
+        void merge( int slot, Aggregate other, int otherSlot ) {
+            if( !other.present.get( otherSlot ) ) return;
+            if( other.longs != null ) add( slot, other.longs[otherSlot] );
+            else {
+                if( longs != null ) toDoubles();
+                add( slot, other.doubles[otherSlot] );
+            }
+        }
+
+        private void add( int slot, long value ) {
+            if( longs == null ) {
+                add( slot, ( double ) value );
+                return;
+            }
+            if( !present.get( slot ) ) {
+                present.set( slot );
+                longs[slot] = value;
+            } else switch( op ) {
+                case MIN -> longs[slot] = Math.min( longs[slot], value );
+                case MAX -> longs[slot] = Math.max( longs[slot], value );
+                default -> {
+                    try {
+                        longs[slot] = Math.addExact( longs[slot], value );
+                    } catch( ArithmeticException e ) {
+                        toDoubles();
+                        add( slot, ( double ) value );
+                    }
+                }
+            }
+        }
+
+        private void add( int slot, double value ) {
+            if( !present.get( slot ) ) {
+                present.set( slot );
+                doubles[slot] = value;
+            } else doubles[slot] = switch( op ) {
+                case MIN -> Math.min( doubles[slot], value );
+                case MAX -> Math.max( doubles[slot], value );
+                default -> doubles[slot] + value;
+            };
+        }
+
+        private void toDoubles() {
+            doubles = new double[longs.length];
+            for( var i = 0; i < longs.length; i++ ) doubles[i] = longs[i];
+            longs = null;
+        }
+
+        String toString( int slot ) {
+            if( !present.get( slot ) ) return "";
+            return longs != null ? String.valueOf( longs[slot] ) : String.valueOf( doubles[slot] );
+        }
+    }
+}
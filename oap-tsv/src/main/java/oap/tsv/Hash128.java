@@ -0,0 +1,148 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteOrder;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Incremental MurmurHash3 x64 128 of key cells, every cell is hashed as its length followed by its bytes.
+ * {@link TsvInputStream.Line} and {@link TsvRow} cells are hashed as raw line bytes, other rows as UTF-8 of the cells.
+ * Not thread-safe, the result is in {@link #h1} and {@link #h2}.
+ */
+final class Hash128 {
+    private static final VarHandle LONG = MethodHandles.byteArrayViewVarHandle( long[].class, ByteOrder.LITTLE_ENDIAN );
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    private final byte[] tail = new byte[16];
+    private final byte[] scratch = new byte[4];
+    private int tailLength;
+    private long length;
+    long h1;
+    long h2;
+
+    Hash128 of( TsvInputStream.Line line, int[] keys ) {
+        reset();
+        for( var key : keys )
+            if( key < line.cells.size() ) cell( line.buffer, TsvInputStream.cellOffset( line.cells, key ), TsvInputStream.cellLength( line.cells, key ) );
+            else cell( line.buffer, 0, 0 );
+        return finish();
+    }
+
+    Hash128 of( List<String> row, int[] keys ) {
+        reset();
+        for( var key : keys )
+            if( key >= row.size() ) cell( tail, 0, 0 );
+            else if( row instanceof TsvRow tsvRow ) cell( tsvRow.bytes, tsvRow.offset( key ), tsvRow.length( key ) );
+            else {
+                var bytes = row.get( key ).getBytes( UTF_8 );
+                cell( bytes, 0, bytes.length );
+            }
+        return finish();
+    }
+
+    private void cell( byte[] bytes, int offset, int length ) {
+        scratch[0] = ( byte ) length;
+        scratch[1] = ( byte ) ( length >>> 8 );
+        scratch[2] = ( byte ) ( length >>> 16 );
+        scratch[3] = ( byte ) ( length >>> 24 );
+        put( scratch, 0, 4 );
+        put( bytes, offset, length );
+    }
+
+    private void reset() {
+        h1 = 0;
+        h2 = 0;
+        tailLength = 0;
+        length = 0;
+    }
+
+    private void put( byte[] bytes, int offset, int length ) {
+        this.length += length;
+        while( tailLength > 0 && length > 0 ) {
+            tail[tailLength++] = bytes[offset++];
+            length--;
+            if( tailLength == 16 ) {
+                block( ( long ) LONG.get( tail, 0 ), ( long ) LONG.get( tail, 8 ) );
+                tailLength = 0;
+            }
+        }
+        for( ; length >= 16; offset += 16, length -= 16 )
+            block( ( long ) LONG.get( bytes, offset ), ( long ) LONG.get( bytes, offset + 8 ) );
+        System.arraycopy( bytes, offset, tail, tailLength, length );
+        tailLength += length;
+    }
+
+    private void block( long k1, long k2 ) {
+        h1 ^= mixK1( k1 );
+        h1 = Long.rotateLeft( h1, 27 ) + h2;
+        h1 = h1 * 5 + 0x52dce729;
+
+        h2 ^= mixK2( k2 );
+        h2 = Long.rotateLeft( h2, 31 ) + h1;
+        h2 = h2 * 5 + 0x38495ab5;
+    }
+
+    private Hash128 finish() {
+        var k1 = 0L;
+        var k2 = 0L;
+        for( var i = tailLength - 1; i >= 8; i-- ) k2 = k2 << 8 | tail[i] & 0xFF;
+        for( var i = Math.min( tailLength, 8 ) - 1; i >= 0; i-- ) k1 = k1 << 8 | tail[i] & 0xFF;
+        if( tailLength > 8 ) h2 ^= mixK2( k2 );
+        if( tailLength > 0 ) h1 ^= mixK1( k1 );
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix( h1 );
+        h2 = fmix( h2 );
+        h1 += h2;
+        h2 += h1;
+        return this;
+    }
+
+    private static long mixK1( long k1 ) {
+        return Long.rotateLeft( k1 * C1, 31 ) * C2;
+    }
+
+    private static long mixK2( long k2 ) {
+        return Long.rotateLeft( k2 * C2, 33 ) * C1;
+    }
+
+    private static long fmix( long k ) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+/**
+ * Exact up to 128-bit hash collisions: open addressing over a {@code long} array, two longs per slot, half full at most.
+ * The table doubles when it is half full, a set bounded by {@code maxBytes} is {@link #isFull()} instead when doubling
+ * would take more than that, counting the old table copied into the new one.
+ */
+public class HashKeySet extends KeySet {
+    private final long maxBytes;
+    private long[] table;
+    private int mask;
+    private int size = 0;
+
+    public HashKeySet() {
+        this( 1024 );
+    }
+
+    public HashKeySet( int expected ) {
+        this( expected, Long.MAX_VALUE );
+    }
+
+    public HashKeySet( int expected, long maxBytes ) {
+        this.maxBytes = maxBytes;
+        var slots = Integer.highestOneBit( Math.max( expected, 8 ) * 2 - 1 ) * 2;
+        while( slots > 16 && slots * 16L > maxBytes ) slots >>= 1;
+        table = new long[slots * 2];
+        mask = slots - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * heap taken by the table
+     */
+    public long bytes() {
+        return table.length * 8L;
+    }
+
+    /**
+     * @return true if one more key would grow the table beyond {@code maxBytes}
+     */
+    public boolean isFull() {
+        return ( size + 1 ) * 2 > mask + 1 && bytes() * 3 > maxBytes;
+    }
+
+    @Override
+    boolean add( long h1, long h2 ) {
+        if( h1 == 0 && h2 == 0 ) h2 = 1;
+
+        var slot = ( int ) h1 & mask;
+        while( table[slot * 2] != 0 || table[slot * 2 + 1] != 0 ) {
+            if( table[slot * 2] == h1 && table[slot * 2 + 1] == h2 ) return false;
+            slot = slot + 1 & mask;
+        }
+        table[slot * 2] = h1;
+        table[slot * 2 + 1] = h2;
+        if( ++size * 2 > mask + 1 ) grow();
+        return true;
+    }
+
+    boolean contains( long h1, long h2 ) {
+        if( h1 == 0 && h2 == 0 ) h2 = 1;
+
+        var slot = ( int ) h1 & mask;
+        while( table[slot * 2] != 0 || table[slot * 2 + 1] != 0 ) {
+            if( table[slot * 2] == h1 && table[slot * 2 + 1] == h2 ) return true;
+            slot = slot + 1 & mask;
+        }
+        return false;
+    }
+
+    private void grow() {
+        var old = table;
+        table = new long[old.length * 2];
+        mask = ( mask << 1 ) | 1;
+        for( var i = 0; i < old.length; i += 2 ) {
+            if( old[i] == 0 && old[i + 1] == 0 ) continue;
+            var slot = ( int ) old[i] & mask;
+            while( table[slot * 2] != 0 || table[slot * 2 + 1] != 0 ) slot = slot + 1 & mask;
+            table[slot * 2] = old[i];
+            table[slot * 2 + 1] = old[i + 1];
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import java.nio.ByteBuffer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Bounded two-way set-associative cache of cell values keyed by their UTF-8 bytes, a hit costs no allocation.
+ * The least recently used value of a set is evicted. Safe to share between threads: a race can only lose an entry.
+ */
+public final class Interner {
+    public static final int DEFAULT_SIZE = 4096;
+
+    private final Entry[] entries;
+    private final int mask;
+
+    public Interner() {
+        this( DEFAULT_SIZE );
+    }
+
+    /**
+     * @param size maximum number of values kept, rounded up to a power of two
+     */
+    public Interner( int size ) {
+        if( size < 2 ) throw new IllegalArgumentException( "size must be at least 2" );
+        this.entries = new Entry[Integer.highestOneBit( size - 1 ) << 1];
+        this.mask = entries.length - 2;
+    }
+
+    public String intern( byte[] bytes, int offset, int length ) {
+        var set = set( Bytes.hash( bytes, offset, length ) );
+
+        var first = entries[set];
+        if( first != null && first.key != null && Bytes.equals( bytes, offset, length, first.key ) ) return first.value;
+        var second = entries[set + 1];
+        if( second != null && second.key != null && Bytes.equals( bytes, offset, length, second.key ) ) return promote( set, first, second );
+
+        var key = new byte[length];
+        System.arraycopy( bytes, offset, key, 0, length );
+        return insert( set, first, new Entry( key, new String( key, UTF_8 ) ) );
+    }
+
+    public String intern( ByteBuffer buffer, int offset, int length ) {
+        if( buffer.hasArray() ) return intern( buffer.array(), buffer.arrayOffset() + offset, length );
+
+        var hash = 1;
+        for( var i = offset; i < offset + length; i++ ) hash = 31 * hash + buffer.get( i );
+        var set = set( hash );
+
+        var first = entries[set];
+        if( first != null && equals( buffer, offset, length, first.key ) ) return first.value;
+        var second = entries[set + 1];
+        if( second != null && equals( buffer, offset, length, second.key ) ) return promote( set, first, second );
+
+        var key = new byte[length];
+        buffer.get( offset, key );
+        return insert( set, first, new Entry( key, new String( key, UTF_8 ) ) );
+    }
+
+    /**
+     * Deduplicates already decoded values, they are kept apart from the byte keyed ones.
+     */
+    public String intern( String value ) {
+        var set = set( value.hashCode() );
+
+        var first = entries[set];
+        if( first != null && first.key == null && value.equals( first.value ) ) return first.value;
+        var second = entries[set + 1];
+        if( second != null && second.key == null && value.equals( second.value ) ) return promote( set, first, second );
+
+        return insert( set, first, new Entry( null, value ) );
+    }
+
+    private int set( int hash ) {
+        return ( hash ^ ( hash >>> 16 ) ) & mask;
+    }
+
+    private String promote( int set, Entry first, Entry second ) {
+        entries[set] = second;
+        entries[set + 1] = first;
+        return second.value;
+    }
+
+    private String insert( int set, Entry first, Entry entry ) {
+        entries[set + 1] = first;
+        entries[set] = entry;
+        return entry.value;
+    }
+
+    private static boolean equals( ByteBuffer buffer, int offset, int length, byte[] key ) {
+        if( key == null || key.length != length ) return false;
+        for( var i = 0; i < length; i++ ) if( buffer.get( offset + i ) != key[i] ) return false;
+        return true;
+    }
+
+    private record Entry( byte[] key, String value ) {}
+}
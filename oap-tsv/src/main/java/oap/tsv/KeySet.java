@@ -0,0 +1,55 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import java.util.List;
+
+/**
+ * Set of row keys kept as 128-bit hashes of the key cells, keys are never materialized. Not thread-safe.
+ *
+ * @see HashKeySet
+ * @see BloomKeySet
+ */
+public abstract class KeySet {
+    private final Hash128 hash = new Hash128();
+
+    /**
+     * @return true if the key was not in the set
+     */
+    public boolean add( TsvInputStream.Line line, int[] keys ) {
+        hash.of( line, keys );
+        return add( hash.h1, hash.h2 );
+    }
+
+    /**
+     * @return true if the key was not in the set
+     */
+    public boolean add( List<String> row, int[] keys ) {
+        hash.of( row, keys );
+        return add( hash.h1, hash.h2 );
+    }
+
+    abstract boolean add( long h1, long h2 );
+}
@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static oap.tsv.TsvInputStream.cellLength;
+import static oap.tsv.TsvInputStream.cellOffset;
+
+/**
+ * Predicate evaluated on the raw bytes of a line, before any cell is decoded.
+ * {@code cells} are the offsets produced by {@link TsvInputStream#split}, relative to {@code offset}.
+ */
+@FunctionalInterface
+public interface LinePredicate {
+    boolean test( byte[] buffer, int offset, IntArrayList cells );
+
+    /**
+     * number of leading cells the predicate looks at, the line is not split further
+     */
+    default int limit() {
+        return Integer.MAX_VALUE;
+    }
+
+    default LinePredicate and( LinePredicate other ) {
+        var predicate = this;
+        return of( Math.max( limit(), other.limit() ),
+            ( buffer, offset, cells ) -> predicate.test( buffer, offset, cells ) && other.test( buffer, offset, cells ) );
+    }
+
+    default LinePredicate or( LinePredicate other ) {
+        var predicate = this;
+        return of( Math.max( limit(), other.limit() ),
+            ( buffer, offset, cells ) -> predicate.test( buffer, offset, cells ) || other.test( buffer, offset, cells ) );
+    }
+
+    default LinePredicate negate() {
+        var predicate = this;
+        return of( limit(), ( buffer, offset, cells ) -> !predicate.test( buffer, offset, cells ) );
+    }
+
+    static LinePredicate of( int limit, LinePredicate predicate ) {
+        return new LinePredicate() {
+            @Override
+            public boolean test( byte[] buffer, int offset, IntArrayList cells ) {
+                return predicate.test( buffer, offset, cells );
+            }
+
+            @Override
+            public int limit() {
+                return limit;
+            }
+        };
+    }
+
+    static LinePredicate eq( int column, String value ) {
+        var bytes = value.getBytes( UTF_8 );
+        return of( column + 1, ( buffer, offset, cells ) -> column < cells.size()
+            && Bytes.equals( buffer, offset + cellOffset( cells, column ), cellLength( cells, column ), bytes ) );
+    }
+
+    static LinePredicate in( int column, String... values ) {
+        var set = new Int2ObjectOpenHashMap<byte[][]>();
+        for( var value : values ) {
+            var bytes = value.getBytes( UTF_8 );
+            set.compute( Bytes.hash( bytes, 0, bytes.length ), ( hash, list ) -> {
+                if( list == null ) return new byte[][] { bytes };
+                var result = Arrays.copyOf( list, list.length + 1 );
+                result[list.length] = bytes;
+                return result;
+            } );
+        }
+
+        return of( column + 1, ( buffer, offset, cells ) -> {
+            if( column >= cells.size() ) return false;
+            var start = offset + cellOffset( cells, column );
+            var length = cellLength( cells, column );
+            var candidates = set.get( Bytes.hash( buffer, start, length ) );
+            if( candidates == null ) return false;
+            for( var candidate : candidates )
+                if( Bytes.equals( buffer, start, length, candidate ) ) return true;
+            return false;
+        } );
+    }
+
+    static LinePredicate startsWith( int column, String prefix ) {
+        var bytes = prefix.getBytes( UTF_8 );
+        return of( column + 1, ( buffer, offset, cells ) -> column < cells.size()
+            && Bytes.startsWith( buffer, offset + cellOffset( cells, column ), cellLength( cells, column ), bytes ) );
+    }
+
+    /**
+     * integer cell within [{@code from}, {@code to}], non numeric cells do not match
+     */
+    static LinePredicate between( int column, long from, long to ) {
+        return of( column + 1, ( buffer, offset, cells ) -> {
+            if( column >= cells.size() ) return false;
+            var start = offset + cellOffset( cells, column );
+            var length = cellLength( cells, column );
+            if( !Bytes.isLong( buffer, start, length ) ) return false;
+            var value = Bytes.parseLong( buffer, start, length );
+            return value >= from && value <= to;
+        } );
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import lombok.ToString;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+
+/**
+ * {@link TsvInputStream} counterpart reading a file through {@link FileChannel#map}.
+ * Lines are not copied nor truncated: {@link #line} is a slice of the mapped window.
+ * A line may not be longer than the window.
+ */
+public class MappedTsvReader implements Closeable {
+    public static final long DEFAULT_WINDOW_SIZE = 1L << 30;
+
+    public final Line line = new Line();
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private int position;
+
+    public MappedTsvReader( Path path ) throws IOException {
+        this( path, DEFAULT_WINDOW_SIZE );
+    }
+
+    public MappedTsvReader( Path path, long windowSize ) throws IOException {
+        this.channel = FileChannel.open( path, READ );
+        this.size = channel.size();
+        this.windowSize = Math.min( windowSize, Integer.MAX_VALUE );
+
+        map( 0 );
+    }
+
+    public boolean readCells() throws IOException {
+        line.cells.clear();
+
+        while( true ) {
+            if( windowStart + position >= size ) {
+                line.len = 0;
+                return false;
+            }
+
+            var limit = window.limit();
+            for( var i = position; i < limit; i++ )
+                if( window.get( i ) == '\n' ) {
+                    split( position, i );
+                    position = i + 1;
+                    return true;
+                }
+
+            if( windowStart + limit >= size ) {
+                split( position, limit );
+                position = limit;
+                return true;
+            }
+
+            if( position == 0 )
+                throw new IOException( "line at " + windowStart + " is longer than " + windowSize + " bytes" );
+            map( windowStart + position );
+        }
+    }
+
+    private void split( int from, int to ) {
+        if( to > from && window.get( to - 1 ) == '\r' ) to--;
+
+        line.buffer = window;
+        line.offset = from;
+        line.len = to - from;
+
+        TsvInputStream.split( window, from, line.len, line.cells );
+    }
+
+    private void map( long start ) throws IOException {
+        window = channel.map( READ_ONLY, start, Math.min( windowSize, size - start ) );
+        windowStart = start;
+        position = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @ToString( exclude = "buffer" )
+    public static class Line {
+        public final IntArrayList cells = new IntArrayList();
+        public ByteBuffer buffer;
+        public int offset = 0;
+        public int len = 0;
+
+        public int offset( int index ) {
+            return offset + ( index == 0 ? 0 : cells.getInt( index - 1 ) );
+        }
+
+        public int length( int index ) {
+            return cells.getInt( index ) - ( index == 0 ? 0 : cells.getInt( index - 1 ) ) - 1;
+        }
+
+        public String cell( int index ) {
+            var bytes = new byte[length( index )];
+            buffer.get( offset( index ), bytes );
+
+            return new String( bytes, UTF_8 );
+        }
+
+        public String cell( int index, Interner interner ) {
+            return interner.intern( buffer, offset( index ), length( index ) );
+        }
+
+        public int indexOf( String value ) {
+            var bytes = value.getBytes( UTF_8 );
+            for( var i = 0; i < cells.size(); i++ ) {
+                if( length( i ) != bytes.length ) continue;
+
+                var cellOffset = offset( i );
+                var j = 0;
+                while( j < bytes.length && buffer.get( cellOffset + j ) == bytes[j] ) j++;
+                if( j == bytes.length ) return i;
+            }
+
+            return -1;
+        }
+    }
+}
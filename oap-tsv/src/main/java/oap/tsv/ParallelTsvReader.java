@@ -0,0 +1,222 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import oap.util.Stream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterators;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.StreamSupport;
+
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+
+/**
+ * Splits a plain (uncompressed) file into newline aligned byte ranges and tokenizes them on a fork-join pool.
+ * <p>
+ * In ordered mode rows come in file order. In unordered mode chunks come in completion order,
+ * except the first chunk which is always emitted first, so {@link TsvStream#withHeaders()} takes the header
+ * from the first line of the file in both modes.
+ */
+public class ParallelTsvReader {
+    public static final int DEFAULT_CHUNK_SIZE = 16 * 1024 * 1024;
+
+    public int chunkSize = DEFAULT_CHUNK_SIZE;
+    public boolean ordered = true;
+    public ForkJoinPool pool = ForkJoinPool.commonPool();
+    public LinePredicate filter;
+    /**
+     * the first line of the file is a header, {@link #filter} does not apply to it
+     */
+    public boolean header;
+
+    public ParallelTsvReader withChunkSize( int chunkSize ) {
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    public ParallelTsvReader withOrdered( boolean ordered ) {
+        this.ordered = ordered;
+        return this;
+    }
+
+    public ParallelTsvReader withPool( ForkJoinPool pool ) {
+        this.pool = pool;
+        return this;
+    }
+
+    public ParallelTsvReader withFilter( LinePredicate filter ) {
+        return withFilter( filter, false );
+    }
+
+    /**
+     * @param header the first line of the file is a header and is never filtered,
+     *               so that {@link TsvStream#withHeaders()} keeps it
+     */
+    public ParallelTsvReader withFilter( LinePredicate filter, boolean header ) {
+        this.filter = filter;
+        this.header = header;
+        return this;
+    }
+
+    public TsvStream read( Path path ) {
+        try {
+            var channel = FileChannel.open( path, READ );
+            var chunks = new Chunks( channel, boundaries( channel, chunkSize ) );
+            return TsvStream.of( Stream.of( StreamSupport.stream(
+                    Spliterators.spliteratorUnknownSize( chunks, ORDERED | NONNULL ), false )
+                .onClose( chunks::close )
+                .flatMap( List::stream ) ) );
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    static long[] boundaries( FileChannel channel, int chunkSize ) throws IOException {
+        var size = channel.size();
+        var boundaries = new LongArrayList();
+        boundaries.add( 0 );
+
+        var buffer = ByteBuffer.allocate( 8192 );
+        var position = ( long ) chunkSize;
+        while( position < size ) {
+            var next = nextLine( channel, position - 1, buffer );
+            if( next >= size ) break;
+            boundaries.add( next );
+            position = next + chunkSize;
+        }
+        boundaries.add( size );
+
+        return boundaries.toLongArray();
+    }
+
+    private static long nextLine( FileChannel channel, long position, ByteBuffer buffer ) throws IOException {
+        while( true ) {
+            buffer.clear();
+            var read = channel.read( buffer, position );
+            if( read < 0 ) return channel.size();
+            for( var i = 0; i < read; i++ )
+                if( buffer.get( i ) == '\n' ) return position + i + 1;
+            position += read;
+        }
+    }
+
+    static List<List<String>> parse( FileChannel channel, long from, long to, LinePredicate filter, boolean header ) {
+        try {
+            var bytes = new byte[Math.toIntExact( to - from )];
+            var buffer = ByteBuffer.wrap( bytes );
+            while( buffer.hasRemaining() )
+                if( channel.read( buffer, from + buffer.position() ) < 0 ) break;
+
+            return TsvRowReader.rows( bytes, buffer.position(), new IntArrayList(), filter, header && from == 0 );
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private class Chunks implements Iterator<List<List<String>>>, Closeable {
+        private final FileChannel channel;
+        private final long[] boundaries;
+        private final CompletableFuture<List<List<String>>>[] futures;
+        private final BlockingQueue<Integer> completed = new LinkedBlockingQueue<>();
+        private final int window = Math.max( 1, pool.getParallelism() * 2 );
+        private int submitted = 0;
+        private int taken = 0;
+
+        @SuppressWarnings( "unchecked" )
+        Chunks( FileChannel channel, long[] boundaries ) {
+            this.channel = channel;
+            this.boundaries = boundaries;
+            this.futures = new CompletableFuture[boundaries.length - 1];
+        }
+
+        @Override
+        public boolean hasNext() {
+            return taken < futures.length;
+        }
+
+        @Override
+        public List<List<String>> next() {
+            if( !hasNext() ) throw new NoSuchElementException();
+
+            while( submitted < futures.length && submitted < taken + window ) {
+                var index = submitted++;
+                futures[index] = CompletableFuture
+                    .supplyAsync( () -> parse( channel, boundaries[index], boundaries[index + 1], filter, header ), pool );
+                futures[index].whenComplete( ( rows, e ) -> completed.add( index ) );
+            }
+
+            var index = ordered || taken == 0 ? taken : nextCompleted();
+            taken++;
+            var future = futures[index];
+            futures[index] = null;
+
+            try {
+                return future.join();
+            } catch( CompletionException e ) {
+                if( e.getCause() instanceof RuntimeException re ) throw re;
+                throw e;
+            }
+        }
+
+        private int nextCompleted() {
+            try {
+                while( true ) {
+                    int index = completed.take();
+                    if( index != 0 ) return index;
+                }
+            } catch( InterruptedException e ) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException( e );
+            }
+        }
+
+        @Override
+        public void close() {
+            for( var future : futures ) if( future != null ) future.cancel( false );
+            try {
+                channel.close();
+            } catch( IOException e ) {
+                throw new UncheckedIOException( e );
+            }
+        }
+    }
+}
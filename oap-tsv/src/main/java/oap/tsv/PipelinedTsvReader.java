@@ -0,0 +1,255 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import oap.io.IoStreams;
+import oap.util.Stream;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterators;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.stream.StreamSupport;
+
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+
+/**
+ * Reads a (possibly compressed) stream in three overlapping stages: a reader thread decompresses into recycled
+ * blocks cut at line boundaries, a splitter thread turns blocks into {@link TsvRow}s, the caller consumes them.
+ * <p>
+ * At most {@code queueSize + 2} blocks are in flight, a slow consumer blocks the stages behind it.
+ * Rows come in stream order.
+ * <p>
+ * The returned stream must be closed (e.g. with try-with-resources) unless it is consumed to the end: a stream abandoned
+ * by {@code findFirst()} or {@code limit()} leaves both stages parked on full queues and the input open.
+ * The stage threads are daemons, so such a leak does not keep the JVM from exiting.
+ */
+public class PipelinedTsvReader {
+    public static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+    public static final int DEFAULT_QUEUE_SIZE = 4;
+
+    private static final Block END_BLOCK = new Block( 0 );
+    private static final List<List<String>> END = List.of();
+
+    public int blockSize = DEFAULT_BLOCK_SIZE;
+    public int queueSize = DEFAULT_QUEUE_SIZE;
+    public LinePredicate filter;
+    /**
+     * the first line of the stream is a header, {@link #filter} does not apply to it
+     */
+    public boolean header;
+
+    public PipelinedTsvReader withBlockSize( int blockSize ) {
+        this.blockSize = blockSize;
+        return this;
+    }
+
+    public PipelinedTsvReader withQueueSize( int queueSize ) {
+        this.queueSize = queueSize;
+        return this;
+    }
+
+    public PipelinedTsvReader withFilter( LinePredicate filter ) {
+        return withFilter( filter, false );
+    }
+
+    /**
+     * @param header the first line of the stream is a header and is never filtered,
+     *               so that {@link TsvStream#withHeaders()} keeps it
+     */
+    public PipelinedTsvReader withFilter( LinePredicate filter, boolean header ) {
+        this.filter = filter;
+        this.header = header;
+        return this;
+    }
+
+    /**
+     * encoding is detected by the file extension
+     */
+    public TsvStream read( Path path ) {
+        return read( IoStreams.in( path ) );
+    }
+
+    public TsvStream read( InputStream is, IoStreams.Encoding encoding ) {
+        return read( IoStreams.in( is, encoding ) );
+    }
+
+    /**
+     * the stream must be closed unless it is consumed to the end
+     */
+    public TsvStream read( InputStream is ) {
+        var pipeline = new Pipeline( is );
+        pipeline.start();
+        return TsvStream.of( Stream.of( StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize( pipeline, ORDERED | NONNULL ), false )
+            .onClose( pipeline::close )
+            .flatMap( List::stream ) ) );
+    }
+
+    private static final class Block {
+        private byte[] bytes;
+        private int length;
+
+        private Block( int size ) {
+            this.bytes = new byte[size];
+        }
+    }
+
+    private class Pipeline implements Iterator<List<List<String>>>, Closeable {
+        private final InputStream is;
+        private final BlockingQueue<Block> free = new ArrayBlockingQueue<>( queueSize + 2 );
+        private final BlockingQueue<Block> filled = new ArrayBlockingQueue<>( queueSize + 3 );
+        private final BlockingQueue<List<List<String>>> batches = new ArrayBlockingQueue<>( queueSize + 1 );
+        private final Thread reader = new Thread( this::readBlocks, "tsv-pipeline-reader" );
+        private final Thread splitter = new Thread( this::splitBlocks, "tsv-pipeline-splitter" );
+        private volatile boolean closed = false;
+        private volatile Throwable failure;
+        private List<List<String>> next;
+        private boolean done = false;
+
+        private Pipeline( InputStream is ) {
+            this.is = is;
+            for( var i = 0; i < queueSize + 2; i++ ) free.add( new Block( blockSize ) );
+            reader.setDaemon( true );
+            splitter.setDaemon( true );
+        }
+
+        private void start() {
+            reader.start();
+            splitter.start();
+        }
+
+        private void readBlocks() {
+            try( is ) {
+                var block = free.take();
+                block.length = 0;
+                while( !closed ) {
+                    if( block.length == block.bytes.length ) block.bytes = Arrays.copyOf( block.bytes, block.bytes.length * 2 );
+
+                    var read = is.read( block.bytes, block.length, block.bytes.length - block.length );
+                    if( read < 0 ) {
+                        if( block.length > 0 ) filled.put( block );
+                        break;
+                    }
+                    block.length += read;
+                    if( block.length < block.bytes.length ) continue;
+
+                    var end = block.length;
+                    while( end > 0 && block.bytes[end - 1] != '\n' ) end--;
+                    if( end == 0 ) continue;
+
+                    var next = free.take();
+                    var tail = block.length - end;
+                    if( next.bytes.length < tail * 2 ) next.bytes = new byte[Math.max( blockSize, tail * 2 )];
+                    System.arraycopy( block.bytes, end, next.bytes, 0, tail );
+                    next.length = tail;
+                    block.length = end;
+                    filled.put( block );
+                    block = next;
+                }
+            } catch( InterruptedException e ) {
+                return;
+            } catch( Throwable e ) {
+                failure = e;
+            }
+            filled.offer( END_BLOCK );
+        }
+
+        private void splitBlocks() {
+            var cells = new IntArrayList();
+            var first = true;
+            try {
+                while( true ) {
+                    var block = filled.take();
+                    if( block == END_BLOCK ) break;
+
+                    var rows = TsvRowReader.rows( block.bytes, block.length, cells, filter, header && first );
+                    first = false;
+                    free.put( block );
+                    batches.put( rows );
+                }
+            } catch( InterruptedException e ) {
+                return;
+            } catch( Throwable e ) {
+                failure = e;
+            }
+            try {
+                batches.put( END );
+            } catch( InterruptedException ignored ) {
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            while( next == null && !done ) {
+                List<List<String>> batch;
+                try {
+                    batch = batches.take();
+                } catch( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    close();
+                    throw new IllegalStateException( e );
+                }
+
+                if( batch == END ) {
+                    done = true;
+                    close();
+                    var e = failure;
+                    if( e instanceof IOException ioe ) throw new UncheckedIOException( ioe );
+                    if( e instanceof RuntimeException re ) throw re;
+                    if( e instanceof Error error ) throw error;
+                    if( e != null ) throw new IllegalStateException( e );
+                } else if( !batch.isEmpty() ) next = batch;
+            }
+            return next != null;
+        }
+
+        @Override
+        public List<List<String>> next() {
+            if( !hasNext() ) throw new NoSuchElementException();
+            var batch = next;
+            next = null;
+            return batch;
+        }
+
+        @Override
+        public void close() {
+            if( closed ) return;
+            closed = true;
+            reader.interrupt();
+            splitter.interrupt();
+        }
+    }
+}
@@ -24,7 +24,8 @@
 
 package oap.tsv;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class Tokenizer {
@@ -37,14 +38,14 @@ public class Tokenizer {
     }
 
     public static List<String> parse( String line, char delimiter, int limit, boolean quoted ) {
-        List<String> tokens = new LinkedList<>();
+        List<String> tokens = new ArrayList<>();
         int beginIndex = 0;
         boolean inQuote = false;
         for( int i = 0; i < line.length(); i++ ) {
             char c = line.charAt( i );
             if( c == delimiter && !inQuote ) {
                 if( quoted && line.charAt( beginIndex ) == '"' && line.charAt( i - 1 ) == '"' )
-                    tokens.add( line.substring( beginIndex + 1, i - 1 ).replaceAll( "\"\"", "\"" ) );
+                    tokens.add( line.substring( beginIndex + 1, i - 1 ).replace( "\"\"", "\"" ) );
                 else tokens.add( line.substring( beginIndex, i ) );
                 beginIndex = i + 1;
             }
@@ -53,9 +54,48 @@ public class Tokenizer {
             if( tokens.size() == limit ) return tokens;
         }
         if( quoted && line.charAt( beginIndex ) == '"' && line.charAt( line.length() - 1 ) == '"' )
-            tokens.add( line.substring( beginIndex + 1, line.length() - 1 ).replaceAll( "\"\"", "\"" ) );
+            tokens.add( line.substring( beginIndex + 1, line.length() - 1 ).replace( "\"\"", "\"" ) );
         else tokens.add( line.substring( beginIndex ) );
 
         return tokens;
     }
+
+    /**
+     * tokenizes the line up to the last of {@code columns} and returns these cells only,
+     * cells missing in the line are empty
+     */
+    public static List<String> parse( String line, char delimiter, int[] columns, boolean quoted ) {
+        var limit = 0;
+        for( var column : columns ) limit = Math.max( limit, column + 1 );
+
+        var tokens = new String[columns.length];
+        var cell = 0;
+        var beginIndex = 0;
+        var inQuote = false;
+        for( var i = 0; i < line.length() && cell < limit; i++ ) {
+            var c = line.charAt( i );
+            if( c == delimiter && !inQuote ) {
+                select( tokens, columns, cell++, line, beginIndex, i, quoted );
+                beginIndex = i + 1;
+            }
+            if( quoted && c == '"' ) inQuote = !inQuote;
+        }
+        if( cell < limit ) select( tokens, columns, cell, line, beginIndex, line.length(), quoted );
+
+        for( var i = 0; i < tokens.length; i++ ) if( tokens[i] == null ) tokens[i] = "";
+
+        return Arrays.asList( tokens );
+    }
+
+    private static void select( String[] tokens, int[] columns, int cell, String line, int beginIndex, int endIndex, boolean quoted ) {
+        String token = null;
+        for( var i = 0; i < columns.length; i++ )
+            if( columns[i] == cell ) {
+                if( token == null ) token = quoted && endIndex - beginIndex >= 2
+                    && line.charAt( beginIndex ) == '"' && line.charAt( endIndex - 1 ) == '"'
+                    ? line.substring( beginIndex + 1, endIndex - 1 ).replace( "\"\"", "\"" )
+                    : line.substring( beginIndex, endIndex );
+                tokens[i] = token;
+            }
+    }
 }
@@ -32,13 +32,17 @@ import oap.util.Stream;
 
 import java.io.BufferedReader;
 import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.Reader;
 import java.io.StringReader;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.Consumer;
@@ -59,6 +63,11 @@ public class Tsv {
         public List<String> parse( String line ) {
             return Tokenizer.parse( line, DELIMITER_TAB, Integer.MAX_VALUE, false );
         }
+
+        @Override
+        public List<String> parse( String line, int[] columns ) {
+            return Tokenizer.parse( line, DELIMITER_TAB, columns, false );
+        }
     };
 
     public static final AbstractParser csv = new AbstractParser() {
@@ -66,8 +75,15 @@ public class Tsv {
         public List<String> parse( String line ) {
             return Tokenizer.parse( line, DELIMITER_COMMA, Integer.MAX_VALUE, true );
         }
+
+        @Override
+        public List<String> parse( String line, int[] columns ) {
+            return Tokenizer.parse( line, DELIMITER_COMMA, columns, true );
+        }
     };
 
+    public static final AbstractParser tsvBytes = new TsvBytesParser();
+
     public final List<String> headers;
     public final List<List<String>> data;
 
@@ -147,7 +163,150 @@ public class Tsv {
             };
         }
 
+        /**
+         * parser counting rows and bytes read into {@code metrics}, as well as time spent reading lines.
+         * Bytes are counted for input streams, paths and urls; they are decoded ones, after decompression.
+         * Split time is not measured here, a wrapped parser may produce its rows anywhere in the stream pipeline;
+         * {@link TsvBytesParser#withMetrics(TsvMetrics)} measures it for every row.
+         */
+        public AbstractParser withMetrics( TsvMetrics metrics ) {
+            var parser = this;
+            return new AbstractParser() {
+                @Override
+                public TsvStream from( InputStream inputStream, Charset charset ) {
+                    return super.from( metrics.count( inputStream ), charset );
+                }
+
+                @Override
+                public TsvStream fromStream( Stream<String> stream ) {
+                    return parser.fromStream( Stream.of( Stream.of( metrics.count( stream.iterator() ) ).onClose( stream::close ) ) );
+                }
+
+                @Override
+                public TsvStream fromPath( Path path ) {
+                    return from( IoStreams.in( path ), UTF_8 );
+                }
+
+                @Override
+                public TsvStream fromUrl( URL url, IoStreams.Encoding encoding, Consumer<Integer> progressCallback ) {
+                    return from( in( url, encoding, progressCallback ), UTF_8 );
+                }
+
+                @Override
+                public AbstractParser select( int... columns ) {
+                    return parser.select( columns ).withMetrics( metrics );
+                }
+
+                @Override
+                public AbstractParser select( String... headers ) {
+                    return parser.select( headers ).withMetrics( metrics );
+                }
+
+                @Override
+                public List<String> parse( String line ) {
+                    return parser.parse( line );
+                }
+
+                @Override
+                public List<String> parse( String line, int[] columns ) {
+                    return parser.parse( line, columns );
+                }
+            };
+        }
+
+        /**
+         * parser producing only {@code columns} cells, the line is not tokenized past the last of them
+         */
+        public AbstractParser select( int... columns ) {
+            var parser = this;
+            return new AbstractParser() {
+                @Override
+                public List<String> parse( String line ) {
+                    return parser.parse( line, columns );
+                }
+            };
+        }
+
+        /**
+         * parser taking the first line as headers and producing only {@code headers} cells
+         */
+        public AbstractParser select( String... headers ) {
+            var parser = this;
+            return new AbstractParser() {
+                @Override
+                public TsvStream fromStream( Stream<String> stream ) {
+                    var lines = stream.iterator();
+                    if( !lines.hasNext() ) return TsvStream.of( Stream.of( lines ).map( parser::parse ) );
+
+                    var columns = indices( parser.parse( lines.next() ), headers );
+                    return TsvStream.of( List.of( headers ), Stream.of( Stream.of( lines )
+                        .map( line -> parser.parse( line, columns ) )
+                        .onClose( stream::close ) ) );
+                }
+
+                @Override
+                public List<String> parse( String line ) {
+                    return parser.parse( line );
+                }
+            };
+        }
+
+        public List<String> parse( String line, int[] columns ) {
+            var cells = parse( line );
+            var result = new ArrayList<String>( columns.length );
+            for( var column : columns ) result.add( column < cells.size() ? cells.get( column ) : "" );
+            return result;
+        }
+
         public abstract List<String> parse( String line );
     }
 
+    static int[] indices( List<String> line, String... headers ) {
+        return TsvSchema.of( line ).require( headers );
+    }
+
+    /**
+     * content of the url decoded by {@code encoding}
+     */
+    static InputStream in( URL url, IoStreams.Encoding encoding, Consumer<Integer> progressCallback ) {
+        try {
+            var connection = url.openConnection();
+            var is = progress( connection.getInputStream(), connection.getContentLengthLong(), progressCallback );
+            return IoStreams.in( is, encoding );
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * reports the percentage of {@code total} bytes read so far, whenever it changes
+     */
+    private static InputStream progress( InputStream is, long total, Consumer<Integer> progressCallback ) {
+        if( total <= 0 ) return is;
+        return new FilterInputStream( is ) {
+            private long read = 0;
+            private int percent = -1;
+
+            @Override
+            public int read() throws IOException {
+                var b = super.read();
+                if( b >= 0 ) progress( 1 );
+                return b;
+            }
+
+            @Override
+            public int read( byte[] buffer, int offset, int length ) throws IOException {
+                var count = super.read( buffer, offset, length );
+                if( count > 0 ) progress( count );
+                return count;
+            }
+
+            private void progress( int count ) {
+                read += count;
+                var current = ( int ) Math.min( 100, read * 100 / total );
+                if( current != percent ) progressCallback.accept( percent = current );
+            }
+        };
+    }
+
 }
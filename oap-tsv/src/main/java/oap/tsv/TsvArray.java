@@ -24,6 +24,9 @@
 
 package oap.tsv;
 
+import it.unimi.dsi.fastutil.doubles.DoubleArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import org.apache.commons.lang3.StringUtils;
 import org.joda.time.DateTime;
 import org.joda.time.format.DateTimeFormatter;
@@ -32,6 +35,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.StringJoiner;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 public class TsvArray {
     public static String print( List<Object> list, DateTimeFormatter dateTimeFormatter ) {
         StringJoiner sj = new StringJoiner( ",", "[", "]" );
@@ -53,51 +58,211 @@ public class TsvArray {
         return StringUtils.replace( item, "'", "\\'" );
     }
 
+    /**
+     * elements of an array printed by {@link #print(List, DateTimeFormatter)}, a comma inside quotes does not split
+     */
     public static List<String> parse( String item ) {
-        var array = item.substring( 1, item.length() - 1 );
-        List<String> ret = new ArrayList<>();
-
-        if( array.isEmpty() ) return ret;
-
-        StringBuilder sb = new StringBuilder();
-
-        boolean strBegin = false;
-        boolean escape = false;
-
-        for( var i = 0; i < array.length(); i++ ) {
-            var ch = array.charAt( i );
-            switch( ch ) {
-                case '\'':
-                    if( strBegin && escape ) {
-                        sb.append( '\'' );
-                        escape = false;
-                    }
-                    strBegin = !strBegin;
-                    break;
-                case ',':
-                    ret.add( sb.toString() );
-                    sb.delete( 0, sb.length() );
-                    break;
-                case '\\':
-                    if( escape ) {
-                        sb.append( "\\" );
-                        escape = false;
-                    } else {
-                        escape = true;
-                    }
-                    break;
-                default:
-                    if( escape ) {
-                        escape = false;
-                        sb.append( "\\" ).append( ch );
-                    } else {
-                        sb.append( ch );
-                    }
+        return new Cursor().reset( item ).strings( new ArrayList<>() );
+    }
+
+    public static long[] parseLongs( String item ) {
+        return new Cursor().reset( item ).longs( new LongArrayList() ).toLongArray();
+    }
+
+    public static int[] parseInts( String item ) {
+        return new Cursor().reset( item ).ints( new IntArrayList() ).toIntArray();
+    }
+
+    public static double[] parseDoubles( String item ) {
+        return new Cursor().reset( item ).doubles( new DoubleArrayList() ).toDoubleArray();
+    }
+
+    /**
+     * Streaming decoder over the char or UTF-8 byte range of a cell, elements are decoded one at a time on demand and
+     * numbers are parsed without creating strings. Reusable with {@code reset}, not thread-safe.
+     */
+    public static final class Cursor {
+        private final StringBuilder chars = new StringBuilder();
+        private byte[] scratch = new byte[32];
+        private CharSequence text;
+        private byte[] bytes;
+        private int position;
+        private int end;
+        private boolean more;
+        private int start;
+        private int stop;
+        private int quotes;
+        private boolean escapes;
+
+        public Cursor reset( CharSequence item ) {
+            return reset( item, 0, item.length() );
+        }
+
+        /**
+         * @param from the opening bracket
+         * @param to   after the closing bracket
+         */
+        public Cursor reset( CharSequence item, int from, int to ) {
+            this.text = item;
+            this.bytes = null;
+            return reset( from, to );
+        }
+
+        public Cursor reset( byte[] item, int from, int to ) {
+            this.text = null;
+            this.bytes = item;
+            return reset( from, to );
+        }
+
+        private Cursor reset( int from, int to ) {
+            this.position = from + 1;
+            this.end = Math.max( to - 1, position );
+            this.more = position < end;
+            return this;
+        }
+
+        private char charAt( int index ) {
+            return text != null ? text.charAt( index ) : ( char ) ( bytes[index] & 0xFF );
+        }
+
+        /**
+         * moves to the next element
+         */
+        public boolean next() {
+            if( !more ) return false;
+
+            start = position;
+            quotes = 0;
+            escapes = false;
+            var quoted = false;
+            var escape = false;
+            for( ; position < end; position++ ) {
+                var ch = charAt( position );
+                if( escape ) escape = false;
+                else if( ch == '\\' ) escape = escapes = true;
+                else if( ch == '\'' ) {
+                    quoted = !quoted;
+                    quotes++;
+                } else if( ch == ',' && !quoted ) break;
             }
+            stop = position;
+            more = position < end;
+            position++;
+            return true;
         }
 
-        ret.add( sb.toString() );
+        public String string() {
+            if( !escapes && quotes == 0 ) return substring( start, stop );
+            if( !escapes && quotes == 2 && charAt( start ) == '\'' && charAt( stop - 1 ) == '\'' )
+                return substring( start + 1, stop - 1 );
 
-        return ret;
+            return text != null ? decodeChars() : decodeBytes();
+        }
+
+        private String substring( int from, int to ) {
+            return text != null ? text.subSequence( from, to ).toString() : new String( bytes, from, to - from, UTF_8 );
+        }
+
+        private String decodeChars() {
+            chars.setLength( 0 );
+            var escape = false;
+            for( var i = start; i < stop; i++ ) {
+                var ch = text.charAt( i );
+                if( escape ) {
+                    if( ch != '\'' && ch != '\\' ) chars.append( '\\' );
+                    chars.append( ch );
+                    escape = false;
+                } else if( ch == '\\' ) escape = true;
+                else if( ch != '\'' ) chars.append( ch );
+            }
+            return chars.toString();
+        }
+
+        private String decodeBytes() {
+            if( scratch.length < stop - start ) scratch = new byte[stop - start];
+            var length = 0;
+            var escape = false;
+            for( var i = start; i < stop; i++ ) {
+                var b = bytes[i];
+                if( escape ) {
+                    if( b != '\'' && b != '\\' ) scratch[length++] = '\\';
+                    scratch[length++] = b;
+                    escape = false;
+                } else if( b == '\\' ) escape = true;
+                else if( b != '\'' ) scratch[length++] = b;
+            }
+            return new String( scratch, 0, length, UTF_8 );
+        }
+
+        public long longValue() {
+            if( escapes ) return Long.parseLong( string() );
+            return bytes != null ? Bytes.parseLong( bytes, numberFrom(), numberTo() - numberFrom() )
+                : Bytes.parseLong( ascii(), 0, numberTo() - numberFrom() );
+        }
+
+        public int intValue() {
+            if( escapes ) return Integer.parseInt( string() );
+            return bytes != null ? Bytes.parseInt( bytes, numberFrom(), numberTo() - numberFrom() )
+                : Bytes.parseInt( ascii(), 0, numberTo() - numberFrom() );
+        }
+
+        public double doubleValue() {
+            if( escapes ) return Double.parseDouble( string() );
+            return bytes != null ? Bytes.parseDouble( bytes, numberFrom(), numberTo() - numberFrom() )
+                : Bytes.parseDouble( ascii(), 0, numberTo() - numberFrom() );
+        }
+
+        private boolean quotedNumber() {
+            return quotes == 2 && stop - start >= 2 && charAt( start ) == '\'' && charAt( stop - 1 ) == '\'';
+        }
+
+        private int numberFrom() {
+            return quotedNumber() ? start + 1 : start;
+        }
+
+        private int numberTo() {
+            return quotedNumber() ? stop - 1 : stop;
+        }
+
+        /**
+         * the number chars as bytes, anything but ASCII cannot be a number and fails to parse as {@code '?'}
+         */
+        private byte[] ascii() {
+            var from = numberFrom();
+            var length = numberTo() - from;
+            if( scratch.length < length ) scratch = new byte[length];
+            for( var i = 0; i < length; i++ ) {
+                var ch = text.charAt( from + i );
+                scratch[i] = ch < 0x80 ? ( byte ) ch : ( byte ) '?';
+            }
+            return scratch;
+        }
+
+        /**
+         * clears {@code out} and adds the remaining elements
+         */
+        public List<String> strings( List<String> out ) {
+            out.clear();
+            while( next() ) out.add( string() );
+            return out;
+        }
+
+        public LongArrayList longs( LongArrayList out ) {
+            out.clear();
+            while( next() ) out.add( longValue() );
+            return out;
+        }
+
+        public IntArrayList ints( IntArrayList out ) {
+            out.clear();
+            while( next() ) out.add( intValue() );
+            return out;
+        }
+
+        public DoubleArrayList doubles( DoubleArrayList out ) {
+            out.clear();
+            while( next() ) out.add( doubleValue() );
+            return out;
+        }
     }
 }
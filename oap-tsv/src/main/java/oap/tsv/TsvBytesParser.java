@@ -0,0 +1,200 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import oap.io.IoStreams;
+import oap.util.Stream;
+
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.StreamSupport;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+
+/**
+ * Tab separated parser working on raw UTF-8 bytes: lines are never decoded as a whole,
+ * every row is a {@link TsvRow} which decodes a cell only when it is read.
+ */
+public class TsvBytesParser extends Tsv.AbstractParser {
+    private final int[] columns;
+    private final String[] headers;
+    private final LinePredicate filter;
+    private final boolean header;
+    private final TsvMetrics metrics;
+
+    public TsvBytesParser() {
+        this( null, null, null, false, null );
+    }
+
+    private TsvBytesParser( int[] columns, String[] headers, LinePredicate filter, boolean header, TsvMetrics metrics ) {
+        this.columns = columns;
+        this.headers = headers;
+        this.filter = filter;
+        this.header = header;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public TsvStream from( InputStream inputStream, Charset charset ) {
+        if( !UTF_8.equals( charset ) && !US_ASCII.equals( charset ) )
+            return super.from( metrics == null ? inputStream : metrics.count( inputStream ), charset );
+
+        var reader = new TsvRowReader( metrics == null ? inputStream : metrics.count( inputStream ) );
+        reader.metrics = metrics;
+        List<String> header = List.of();
+        if( headers != null ) {
+            if( reader.hasNext() ) {
+                reader.columns = Tsv.indices( reader.next(), headers );
+                header = List.of( headers );
+            }
+        } else reader.columns = columns;
+        reader.filter = filter;
+        reader.header = header();
+
+        return TsvStream.of( header, Stream.of( StreamSupport.stream(
+                Spliterators.<List<String>>spliteratorUnknownSize( reader, ORDERED | NONNULL ), false )
+            .onClose( reader::close ) ) );
+    }
+
+    @Override
+    public TsvStream fromPath( Path path ) {
+        return from( IoStreams.in( path ), UTF_8 );
+    }
+
+    @Override
+    public TsvStream fromUrl( URL url, IoStreams.Encoding encoding, Consumer<Integer> progressCallback ) {
+        return from( Tsv.in( url, encoding, progressCallback ), UTF_8 );
+    }
+
+    @Override
+    public TsvBytesParser select( int... columns ) {
+        if( headers != null ) throw new IllegalStateException( "columns are already selected by headers" );
+        if( this.columns == null ) return new TsvBytesParser( columns, null, filter, header, metrics );
+
+        var selected = new int[columns.length];
+        for( var i = 0; i < columns.length; i++ ) selected[i] = this.columns[columns[i]];
+        return new TsvBytesParser( selected, null, filter, header, metrics );
+    }
+
+    @Override
+    public TsvBytesParser select( String... headers ) {
+        if( columns != null || this.headers != null ) throw new IllegalStateException( "columns are already selected" );
+        return new TsvBytesParser( null, headers, filter, header, metrics );
+    }
+
+    /**
+     * parser dropping lines not matching {@code filter} before building rows.
+     * The predicate columns are the line columns, not the selected ones.
+     */
+    public TsvBytesParser filter( LinePredicate filter ) {
+        return filter( filter, false );
+    }
+
+    /**
+     * @param header the first line is a header and is never filtered, so that it survives for
+     *               {@link TsvStream#withHeaders()}. With {@link #select(String...)} the first line is always a header.
+     */
+    public TsvBytesParser filter( LinePredicate filter, boolean header ) {
+        return new TsvBytesParser( columns, headers, this.filter == null ? filter : this.filter.and( filter ),
+            this.header || header, metrics );
+    }
+
+    /**
+     * parser counting rows, bytes, filtered rows and read and split times into {@code metrics}
+     */
+    @Override
+    public TsvBytesParser withMetrics( TsvMetrics metrics ) {
+        return new TsvBytesParser( columns, headers, filter, header, metrics );
+    }
+
+    /**
+     * lines decoded by the caller ({@link #from(java.io.Reader)}, {@link #fromStream(Stream)}, charsets other than UTF-8)
+     * are encoded back to bytes, the selection, the filter and the metrics are the same as for byte input.
+     * Bytes are counted only when they come from an input stream.
+     */
+    @Override
+    public TsvStream fromStream( Stream<String> stream ) {
+        var lines = metrics == null ? stream.iterator() : metrics.count( stream.iterator() );
+        var header = List.<String>of();
+        var selected = columns;
+        List<String> first = null;
+        if( lines.hasNext() ) {
+            var line = lines.next();
+            if( headers != null ) {
+                selected = Tsv.indices( row( line, null, filter, true ), headers );
+                header = List.of( headers );
+            } else first = header() ? row( line, columns, filter, true ) : split( line, columns );
+        }
+
+        var projection = selected;
+        var rows = Stream.of( lines )
+            .<List<String>>map( line -> split( line, projection ) )
+            .filter( Objects::nonNull );
+        return TsvStream.of( header, Stream.of( ( first == null ? rows : Stream.of( List.of( first ) ).concat( rows ) )
+            .onClose( stream::close ) ) );
+    }
+
+    @Override
+    public List<String> parse( String line ) {
+        return row( line, columns, null, false );
+    }
+
+    /**
+     * the header line of an input with headers is not filtered
+     */
+    private boolean header() {
+        return header || headers != null;
+    }
+
+    private TsvRow split( String line, int[] columns ) {
+        if( metrics == null ) return row( line, columns, filter, false );
+
+        var start = System.nanoTime();
+        var row = row( line, columns, filter, false );
+        if( row == null ) metrics.filtered.increment();
+        metrics.splitNanos.add( System.nanoTime() - start );
+        return row;
+    }
+
+    /**
+     * @return null if the line does not match {@code filter}
+     */
+    private static TsvRow row( String line, int[] columns, LinePredicate filter, boolean header ) {
+        var bytes = line.getBytes( UTF_8 );
+        var cells = new IntArrayList();
+        if( !TsvRowReader.accept( bytes, 0, bytes.length, cells, filter, header ) ) return null;
+        return TsvRowReader.row( bytes, 0, bytes.length, cells, columns );
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+import static oap.tsv.Tsv.DELIMITER_COMMA;
+import static oap.tsv.Tsv.DELIMITER_TAB;
+
+/**
+ * Row by row tokenizer with the same rules as {@link Tokenizer}, reusing one buffer for all rows.
+ * Cells returned by {@link #cell(int)} are views valid until the next {@link #nextRow()}.
+ */
+public class TsvCursor implements Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final Reader reader;
+    private final char delimiter;
+    private final boolean quoted;
+    private char[] buffer;
+    private int position = 0;
+    private int limit = 0;
+    private boolean eof = false;
+    private int[] starts = new int[16];
+    private int[] ends = new int[16];
+    private Cell[] views = new Cell[0];
+    private int count = 0;
+
+    public TsvCursor( Reader reader, char delimiter, boolean quoted ) {
+        this( reader, delimiter, quoted, DEFAULT_BUFFER_SIZE );
+    }
+
+    public TsvCursor( Reader reader, char delimiter, boolean quoted, int bufferSize ) {
+        this.reader = reader;
+        this.delimiter = delimiter;
+        this.quoted = quoted;
+        this.buffer = new char[bufferSize];
+    }
+
+    public static TsvCursor tsv( Reader reader ) {
+        return new TsvCursor( reader, DELIMITER_TAB, false );
+    }
+
+    public static TsvCursor csv( Reader reader ) {
+        return new TsvCursor( reader, DELIMITER_COMMA, true );
+    }
+
+    public boolean nextRow() throws IOException {
+        count = 0;
+        var scan = position;
+        while( true ) {
+            for( var i = scan; i < limit; i++ )
+                if( buffer[i] == '\n' ) {
+                    tokenize( position, i );
+                    position = i + 1;
+                    return true;
+                }
+
+            if( eof ) {
+                if( position == limit ) return false;
+                tokenize( position, limit );
+                position = limit;
+                return true;
+            }
+
+            if( position > 0 ) {
+                System.arraycopy( buffer, position, buffer, 0, limit - position );
+                limit -= position;
+                position = 0;
+            }
+            scan = limit;
+            if( limit == buffer.length ) buffer = Arrays.copyOf( buffer, buffer.length * 2 );
+
+            var read = reader.read( buffer, limit, buffer.length - limit );
+            if( read < 0 ) eof = true;
+            else limit += read;
+        }
+    }
+
+    public int cellCount() {
+        return count;
+    }
+
+    public int cellLength( int index ) {
+        checkIndex( index );
+        return ends[index] - starts[index];
+    }
+
+    public CharSequence cell( int index ) {
+        checkIndex( index );
+        return views[index];
+    }
+
+    public String string( int index ) {
+        var length = cellLength( index );
+        return new String( buffer, starts[index], length );
+    }
+
+    public boolean cellEquals( int index, CharSequence value ) {
+        var length = cellLength( index );
+        if( length != value.length() ) return false;
+
+        var start = starts[index];
+        for( var i = 0; i < length; i++ )
+            if( buffer[start + i] != value.charAt( i ) ) return false;
+
+        return true;
+    }
+
+    /**
+     * the offsets past {@link #cellCount()} are left over from longer rows
+     */
+    private void checkIndex( int index ) {
+        if( index < 0 || index >= count ) throw new IndexOutOfBoundsException( "cell " + index + ", count " + count );
+    }
+
+    private void tokenize( int from, int to ) {
+        if( to > from && buffer[to - 1] == '\r' ) to--;
+
+        var begin = from;
+        var inQuote = false;
+        for( var i = from; i < to; i++ ) {
+            var c = buffer[i];
+            if( c == delimiter && !inQuote ) {
+                add( begin, i );
+                begin = i + 1;
+            }
+            if( quoted && c == '"' ) inQuote = !inQuote;
+        }
+        add( begin, to );
+    }
+
+    private void add( int begin, int end ) {
+        if( count == starts.length ) {
+            starts = Arrays.copyOf( starts, count * 2 );
+            ends = Arrays.copyOf( ends, count * 2 );
+        }
+        if( count == views.length ) {
+            views = Arrays.copyOf( views, starts.length );
+            for( var i = count; i < views.length; i++ ) views[i] = new Cell( i );
+        }
+
+        if( quoted && end - begin >= 2 && buffer[begin] == '"' && buffer[end - 1] == '"' ) {
+            var write = begin + 1;
+            var read = begin + 1;
+            var stop = end - 1;
+            while( read < stop ) {
+                var c = buffer[read];
+                buffer[write++] = c;
+                read += c == '"' && read + 1 < stop && buffer[read + 1] == '"' ? 2 : 1;
+            }
+            starts[count] = begin + 1;
+            ends[count] = write;
+        } else {
+            starts[count] = begin;
+            ends[count] = end;
+        }
+        count++;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private final class Cell implements CharSequence {
+        private final int index;
+
+        private Cell( int index ) {
+            this.index = index;
+        }
+
+        @Override
+        public int length() {
+            return cellLength( index );
+        }
+
+        @Override
+        public char charAt( int i ) {
+            return buffer[starts[index] + i];
+        }
+
+        @Override
+        public CharSequence subSequence( int start, int end ) {
+            return new String( buffer, starts[index] + start, end - start );
+        }
+
+        @Override
+        public String toString() {
+            return string( index );
+        }
+    }
+}
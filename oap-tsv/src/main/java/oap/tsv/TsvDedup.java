@@ -0,0 +1,164 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import oap.util.Stream;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Keeps the first row of every key. The exact mode remembers 128-bit key hashes in a {@link HashKeySet}; once its table
+ * cannot grow within {@link #memory}, rows with unseen keys are hash partitioned to temporary files and deduplicated
+ * partition by partition after the input ends, every partition is expected to fit into memory then. Spilled rows are
+ * hashed again from their cells, which only has to be consistent within a partition.
+ * The approximate mode is a {@link BloomKeySet} and never spills.
+ * <p>
+ * Both run sequentially. Rows come out in the input order, except the spilled ones which follow it grouped by partition.
+ */
+public class TsvDedup {
+    public static final long DEFAULT_MEMORY = 256L * 1024 * 1024;
+    public static final int DEFAULT_PARTITIONS = 64;
+
+    public long memory = DEFAULT_MEMORY;
+    public int partitions = DEFAULT_PARTITIONS;
+    public Path tmp = Path.of( System.getProperty( "java.io.tmpdir" ) );
+
+    public TsvDedup withMemory( long memory ) {
+        this.memory = memory;
+        return this;
+    }
+
+    public TsvDedup withPartitions( int partitions ) {
+        this.partitions = partitions;
+        return this;
+    }
+
+    public TsvDedup withTmp( Path tmp ) {
+        this.tmp = tmp;
+        return this;
+    }
+
+    public TsvStream exact( TsvStream stream, String... keys ) {
+        var tsv = stream.withHeaders();
+        if( tsv.headers().isEmpty() ) return tsv;
+
+        var columns = tsv.schema().require( keys );
+        var seen = new HashKeySet( 1024, memory );
+        var hash = new Hash128();
+        var spill = new Spill();
+
+        var first = tsv.stripHeaders().toStream().sequential().filter( row -> {
+            hash.of( row, columns );
+            if( !seen.isFull() ) return seen.add( hash.h1, hash.h2 );
+            if( !seen.contains( hash.h1, hash.h2 ) ) spill.add( hash, row );
+            return false;
+        } );
+        var spilled = Stream.of( IntStream.range( 0, partitions ).boxed() ).flatMap( partition -> {
+            if( !spill.finish() ) return Stream.empty();
+            var partitionSeen = new HashKeySet();
+            return spill.stream( partition ).filter( row -> partitionSeen.add( row, columns ) );
+        } );
+
+        return TsvStream.of( tsv.headers(), first.concat( spilled ).onClose( spill::close ) );
+    }
+
+    public static TsvStream approximate( TsvStream stream, long expected, double fpp, String... keys ) {
+        var tsv = stream.withHeaders();
+        if( tsv.headers().isEmpty() ) return tsv;
+
+        var columns = tsv.schema().require( keys );
+        var seen = new BloomKeySet( expected, fpp );
+        return TsvStream.of( tsv.headers(), tsv.stripHeaders().toStream().sequential().filter( row -> seen.add( row, columns ) ) );
+    }
+
+    /**
+     * rows partitioned by key hash, the partition files are created on the first row
+     */
+    private class Spill implements Closeable {
+        private Path[] files;
+        private DataOutputStream[] outs;
+        private boolean finished = false;
+
+        void add( Hash128 hash, List<String> row ) {
+            try {
+                if( files == null ) open();
+                var out = outs[Math.floorMod( hash.h2, partitions )];
+                BinaryRows.write( out, row );
+            } catch( IOException e ) {
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        private void open() throws IOException {
+            files = new Path[partitions];
+            outs = new DataOutputStream[partitions];
+            for( var i = 0; i < partitions; i++ ) {
+                files[i] = Files.createTempFile( tmp, "tsv-dedup", ".part" );
+                outs[i] = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( files[i] ), BinaryRows.BUFFER_SIZE ) );
+            }
+        }
+
+        /**
+         * @return false if nothing was spilled
+         */
+        boolean finish() {
+            if( files == null ) return false;
+            if( finished ) return true;
+            try {
+                for( var i = 0; i < partitions; i++ ) {
+                    outs[i].close();
+                    outs[i] = null;
+                }
+                finished = true;
+                return true;
+            } catch( IOException e ) {
+                throw new UncheckedIOException( e );
+            }
+        }
+
+        Stream<List<String>> stream( int partition ) {
+            return BinaryRows.stream( files[partition] );
+        }
+
+        @Override
+        public void close() {
+            if( files == null ) return;
+            for( var i = 0; i < partitions; i++ )
+                try {
+                    if( outs[i] != null ) outs[i].close();
+                    if( files[i] != null ) Files.deleteIfExists( files[i] );
+                } catch( IOException ignored ) {
+                }
+        }
+    }
+}
@@ -0,0 +1,277 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import lombok.ToString;
+import lombok.extern.slf4j.Slf4j;
+import oap.util.Stream;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterators;
+import java.util.stream.StreamSupport;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+
+/**
+ * Sparse index of a plain TSV file: byte offset of every {@code step}-th row and the header, so that a row range
+ * is read by seeking instead of streaming from the beginning.
+ * <p>
+ * Stored in a {@code .idx} sidecar next to the file and rebuilt when the file size or modification time changes.
+ */
+@ToString( exclude = "offsets" )
+@Slf4j
+public class TsvIndex {
+    public static final int DEFAULT_STEP = 1024;
+    private static final int MAGIC = 0x54535649;
+    private static final int VERSION = 1;
+
+    public final int step;
+    public final boolean withHeaders;
+    public final long size;
+    public final long modified;
+    public final long rows;
+    public final List<String> headers;
+    private final long[] offsets;
+
+    TsvIndex( int step, boolean withHeaders, long size, long modified, long rows, List<String> headers, long[] offsets ) {
+        this.step = step;
+        this.withHeaders = withHeaders;
+        this.size = size;
+        this.modified = modified;
+        this.rows = rows;
+        this.headers = headers;
+        this.offsets = offsets;
+    }
+
+    public static Path sidecar( Path file ) {
+        return file.resolveSibling( file.getFileName() + ".idx" );
+    }
+
+    /**
+     * loads the sidecar index of the file or, if it is missing or stale, builds and saves it.
+     * A sidecar that cannot be written is logged, the built index is returned anyway.
+     */
+    public static TsvIndex of( Path file, int step, boolean withHeaders ) {
+        var sidecar = sidecar( file );
+        var index = load( sidecar );
+        if( index != null && index.step == step && index.withHeaders == withHeaders && index.isValid( file ) )
+            return index;
+
+        index = build( file, step, withHeaders );
+        try {
+            index.save( sidecar );
+        } catch( UncheckedIOException e ) {
+            log.warn( "cannot save index {}", sidecar, e );
+        }
+        return index;
+    }
+
+    public static TsvIndex build( Path file, int step, boolean withHeaders ) {
+        if( step < 1 ) throw new IllegalArgumentException( "step must be positive" );
+
+        try( var channel = FileChannel.open( file, READ ) ) {
+            var modified = Files.getLastModifiedTime( file ).toMillis();
+            var size = channel.size();
+            var offsets = new LongArrayList();
+            var header = new ByteArrayOutputStream();
+            var buffer = ByteBuffer.allocate( 1024 * 1024 );
+            var lines = 0L;
+            var position = 0L;
+            var last = ( byte ) '\n';
+
+            while( channel.read( buffer.clear() ) > 0 ) {
+                var bytes = buffer.array();
+                for( var i = 0; i < buffer.position(); i++, position++ ) {
+                    if( last == '\n' ) {
+                        var row = withHeaders ? lines - 1 : lines;
+                        if( row >= 0 && row % step == 0 ) offsets.add( position );
+                    }
+                    last = bytes[i];
+                    if( last == '\n' ) lines++;
+                    else if( withHeaders && lines == 0 ) header.write( last );
+                }
+            }
+            if( last != '\n' ) lines++;
+
+            return new TsvIndex( step, withHeaders, size, modified,
+                withHeaders ? Math.max( 0, lines - 1 ) : lines, withHeaders ? headers( header.toByteArray() ) : List.of(),
+                offsets.toLongArray() );
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private static List<String> headers( byte[] line ) {
+        if( line.length == 0 ) return List.of();
+        var cells = new IntArrayList();
+        var length = line[line.length - 1] == '\r' ? line.length - 1 : line.length;
+        TsvInputStream.split( line, length, cells );
+        return List.copyOf( TsvRow.of( line, 0, length, cells ) );
+    }
+
+    /**
+     * @return null if there is no readable index, a corrupted sidecar included
+     */
+    public static TsvIndex load( Path sidecar ) {
+        try( var in = new DataInputStream( new BufferedInputStream( Files.newInputStream( sidecar ) ) ) ) {
+            if( in.readInt() != MAGIC || in.readInt() != VERSION ) return null;
+
+            var step = in.readInt();
+            var withHeaders = in.readBoolean();
+            var size = in.readLong();
+            var modified = in.readLong();
+            var rows = in.readLong();
+            var headers = new ArrayList<String>();
+            for( var i = in.readInt(); i > 0; i-- ) headers.add( in.readUTF() );
+            var count = in.readInt();
+            if( step < 1 || rows < 0 || count < 0 || count > rows / step + 1 ) return null;
+            var offsets = new long[count];
+            for( var i = 0; i < offsets.length; i++ )
+                offsets[i] = ( i == 0 ? 0 : offsets[i - 1] ) + readVarLong( in );
+
+            return new TsvIndex( step, withHeaders, size, modified, rows, List.copyOf( headers ), offsets );
+        } catch( IOException | RuntimeException e ) {
+            return null;
+        }
+    }
+
+    /**
+     * writes a temporary file of its own next to the sidecar and moves it over, so concurrent builders do not clobber each other
+     */
+    public void save( Path sidecar ) {
+        Path tmp = null;
+        try {
+            tmp = Files.createTempFile( sidecar.toAbsolutePath().getParent(), sidecar.getFileName() + ".", ".tmp" );
+            try( var out = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( tmp ) ) ) ) {
+                out.writeInt( MAGIC );
+                out.writeInt( VERSION );
+                out.writeInt( step );
+                out.writeBoolean( withHeaders );
+                out.writeLong( size );
+                out.writeLong( modified );
+                out.writeLong( rows );
+                out.writeInt( headers.size() );
+                for( var header : headers ) out.writeUTF( header );
+                out.writeInt( offsets.length );
+                for( var i = 0; i < offsets.length; i++ )
+                    writeVarLong( out, offsets[i] - ( i == 0 ? 0 : offsets[i - 1] ) );
+            }
+            Files.move( tmp, sidecar, REPLACE_EXISTING, ATOMIC_MOVE );
+        } catch( IOException e ) {
+            try {
+                if( tmp != null ) Files.deleteIfExists( tmp );
+            } catch( IOException ignored ) {
+            }
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    public boolean isValid( Path file ) {
+        try {
+            return Files.size( file ) == size && Files.getLastModifiedTime( file ).toMillis() == modified;
+        } catch( IOException e ) {
+            return false;
+        }
+    }
+
+    /**
+     * rows {@code from} (inclusive) to {@code to} (exclusive) of the file, with the indexed headers
+     */
+    public TsvStream read( Path file, long from, long to ) {
+        if( from < 0 || from > to ) throw new IndexOutOfBoundsException( "rows " + from + ".." + to );
+        var count = Math.min( to, rows ) - Math.min( from, rows );
+        if( count == 0 ) return TsvStream.of( headers, Stream.empty() );
+
+        try {
+            var channel = FileChannel.open( file, READ );
+            try {
+                channel.position( skip( channel, offsets[( int ) ( from / step )], from % step ) );
+            } catch( IOException | RuntimeException e ) {
+                channel.close();
+                throw e;
+            }
+            var reader = new TsvRowReader( Channels.newInputStream( channel ) );
+            return TsvStream.of( headers, Stream.of( StreamSupport.<List<String>>stream(
+                    Spliterators.spliteratorUnknownSize( reader, ORDERED | NONNULL ), false )
+                .limit( count )
+                .onClose( reader::close ) ) );
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private static long skip( FileChannel channel, long position, long lines ) throws IOException {
+        var buffer = ByteBuffer.allocate( 64 * 1024 );
+        while( lines > 0 ) {
+            var read = channel.read( buffer.clear(), position );
+            if( read <= 0 ) return position;
+            for( var i = 0; i < read && lines > 0; i++ )
+                if( buffer.get( i ) == '\n' && --lines == 0 ) return position + i + 1;
+            position += read;
+        }
+        return position;
+    }
+
+    private static void writeVarLong( OutputStream out, long value ) throws IOException {
+        while( ( value & ~0x7FL ) != 0 ) {
+            out.write( ( int ) ( value & 0x7F ) | 0x80 );
+            value >>>= 7;
+        }
+        out.write( ( int ) value );
+    }
+
+    private static long readVarLong( InputStream in ) throws IOException {
+        var value = 0L;
+        for( var shift = 0; shift < 64; shift += 7 ) {
+            var b = in.read();
+            if( b < 0 ) throw new EOFException();
+            value |= ( long ) ( b & 0x7F ) << shift;
+            if( ( b & 0x80 ) == 0 ) return value;
+        }
+        throw new IOException( "malformed index" );
+    }
+}
@@ -6,6 +6,7 @@ import lombok.ToString;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.Objects;
 
@@ -14,7 +15,12 @@ import static java.nio.charset.StandardCharsets.UTF_8;
 public class TsvInputStream extends FastBufferedInputStream {
     private static final char TAB = '\t';
     private static final char ESCAPE = '\\';
+    private static final boolean VECTORIZED = vectorized();
     public final Line line;
+    /**
+     * counts rows, line bytes and read and split times when set
+     */
+    public TsvMetrics metrics;
 
     public TsvInputStream( InputStream is, byte[] bytes ) {
         super( is );
@@ -23,10 +29,59 @@ public class TsvInputStream extends FastBufferedInputStream {
     }
 
     public static void split( byte[] line, int len, IntArrayList list ) {
+        split( line, 0, len, list );
+    }
+
+    /**
+     * cell offsets are relative to {@code offset}, the same as for a line starting at 0
+     */
+    public static void split( byte[] line, int offset, int len, IntArrayList list ) {
+        split( line, offset, len, list, Integer.MAX_VALUE );
+    }
+
+    /**
+     * stops after the first {@code limit} cells
+     */
+    public static void split( byte[] line, int offset, int len, IntArrayList list, int limit ) {
+        var end = limit > Integer.MAX_VALUE - list.size() ? Integer.MAX_VALUE : list.size() + limit;
+        if( VECTORIZED && len >= VectorSplitter.MIN_LENGTH ) VectorSplitter.split( line, offset, len, list, end );
+        else splitScalar( line, offset, len, list, end );
+    }
+
+    static void splitScalar( byte[] line, int offset, int len, IntArrayList list, int end ) {
         int i = 0;
         boolean escape = false;
         while( i < len ) {
-            var ch = line[i];
+            var ch = line[offset + i];
+            switch( ch ) {
+                case ESCAPE -> escape = !escape;
+                case TAB -> {
+                    if( !escape ) {
+                        list.add( i + 1 );
+                        if( list.size() == end ) return;
+                    }
+                    escape = false;
+                }
+                default -> escape = false;
+            }
+            i++;
+        }
+        list.add( i + 1 );
+    }
+
+    public static int cellOffset( IntArrayList cells, int index ) {
+        return index == 0 ? 0 : cells.getInt( index - 1 );
+    }
+
+    public static int cellLength( IntArrayList cells, int index ) {
+        return cells.getInt( index ) - cellOffset( cells, index ) - 1;
+    }
+
+    public static void split( ByteBuffer line, int offset, int len, IntArrayList list ) {
+        int i = 0;
+        boolean escape = false;
+        while( i < len ) {
+            var ch = line.get( offset + i );
             switch( ch ) {
                 case ESCAPE -> escape = !escape;
                 case TAB -> {
@@ -63,20 +118,63 @@ public class TsvInputStream extends FastBufferedInputStream {
         list.add( line.substring( start, i ) );
     }
 
+    private static boolean vectorized() {
+        if( ModuleLayer.boot().findModule( "jdk.incubator.vector" ).isEmpty() ) return false;
+        try {
+            return VectorSplitter.available();
+        } catch( LinkageError e ) {
+            return false;
+        }
+    }
+
     public boolean readCells() throws IOException {
+        return readCells( Integer.MAX_VALUE );
+    }
+
+    public boolean readCells( int limit ) throws IOException {
         line.cells.clear();
         var buffer = line.buffer;
+        var start = metrics != null ? System.nanoTime() : 0;
         var len = readLine( buffer );
 
         line.len = len;
 
-        if( len <= 0 ) return false;
+        if( len <= 0 ) {
+            if( metrics != null ) metrics.readNanos.add( System.nanoTime() - start );
+            return false;
+        }
 
-        split( buffer, len, line.cells );
+        if( metrics == null ) split( buffer, 0, len, line.cells, limit );
+        else {
+            var read = System.nanoTime();
+            split( buffer, 0, len, line.cells, limit );
+            metrics.readNanos.add( read - start );
+            metrics.splitNanos.add( System.nanoTime() - read );
+            metrics.rows.increment();
+            metrics.bytes.add( len + 1 );
+        }
 
         return true;
     }
 
+    /**
+     * skips lines until one matches {@code filter}
+     */
+    public boolean readCells( LinePredicate filter ) throws IOException {
+        var limit = filter.limit();
+        while( readCells( limit ) ) {
+            if( filter.test( line.buffer, 0, line.cells ) ) {
+                if( limit < Integer.MAX_VALUE ) {
+                    line.cells.clear();
+                    split( line.buffer, 0, line.len, line.cells );
+                }
+                return true;
+            }
+            if( metrics != null ) metrics.filtered.increment();
+        }
+        return false;
+    }
+
     @ToString
     public static class Line {
         public final byte[] buffer;
@@ -88,15 +186,19 @@ public class TsvInputStream extends FastBufferedInputStream {
         }
 
         public int indexOf( String value ) {
-            for( int i = 0; i < cells.size(); i++ ) {
-                var offset = i == 0 ? 0 : cells.getInt( i - 1 );
-                var length = cells.getInt( i ) - offset - 1;
-                var str = new String( buffer, offset, length, UTF_8 );
-
-                if( value.equals( str ) ) return i;
-            }
+            var bytes = value.getBytes( UTF_8 );
+            for( int i = 0; i < cells.size(); i++ )
+                if( Bytes.equals( buffer, cellOffset( cells, i ), cellLength( cells, i ), bytes ) ) return i;
 
             return -1;
         }
+
+        public String cell( int index ) {
+            return new String( buffer, cellOffset( cells, index ), cellLength( cells, index ), UTF_8 );
+        }
+
+        public String cell( int index, Interner interner ) {
+            return interner.intern( buffer, cellOffset( cells, index ), cellLength( cells, index ) );
+        }
     }
 }
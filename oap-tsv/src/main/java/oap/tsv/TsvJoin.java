@@ -0,0 +1,295 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import oap.util.Stream;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Hash join on named key columns, the right stream is the build side. It is kept dictionary encoded in a
+ * {@link ColumnarTsv.Builder} with the matching rows of every key chained in primitive arrays. Once the build side
+ * exceeds {@link #memory} both sides are hash partitioned to temporary files and joined partition by partition,
+ * every partition is expected to fit into memory then.
+ * <p>
+ * Output headers are the left headers followed by the right ones without the keys. In memory the output follows the
+ * left order, after partitioning it follows the partitions.
+ */
+public class TsvJoin {
+    public static final long DEFAULT_MEMORY = 256L * 1024 * 1024;
+    public static final int DEFAULT_PARTITIONS = 64;
+
+    public long memory = DEFAULT_MEMORY;
+    public int partitions = DEFAULT_PARTITIONS;
+    public Path tmp = Path.of( System.getProperty( "java.io.tmpdir" ) );
+
+    public TsvJoin withMemory( long memory ) {
+        this.memory = memory;
+        return this;
+    }
+
+    public TsvJoin withPartitions( int partitions ) {
+        this.partitions = partitions;
+        return this;
+    }
+
+    public TsvJoin withTmp( Path tmp ) {
+        this.tmp = tmp;
+        return this;
+    }
+
+    /**
+     * left rows with a matching right row only
+     */
+    public TsvStream inner( TsvStream left, TsvStream right, String... keys ) {
+        return join( left, right, keys, false );
+    }
+
+    /**
+     * all left rows, with empty right cells when nothing matches
+     */
+    public TsvStream left( TsvStream left, TsvStream right, String... keys ) {
+        return join( left, right, keys, true );
+    }
+
+    private TsvStream join( TsvStream left, TsvStream right, String[] keys, boolean outer ) {
+        var probe = left.withHeaders();
+        var build = right.withHeaders();
+        if( probe.headers().isEmpty() ) return probe;
+        if( build.headers().isEmpty() ) return outer ? probe : TsvStream.of( probe.headers(), Stream.empty() );
+
+        var leftKeys = probe.schema().require( keys );
+        var rightKeys = build.schema().require( keys );
+        var values = IntStream.range( 0, build.headers().size() )
+            .filter( i -> IntStream.of( rightKeys ).noneMatch( key -> key == i ) )
+            .toArray();
+        var width = probe.headers().size();
+
+        var headers = new ArrayList<>( probe.headers() );
+        for( var value : values ) headers.add( build.headers().get( value ) );
+
+        var table = new Table( rightKeys, values );
+        Partitions buildPartitions = null;
+        try( var data = build.stripHeaders().toStream() ) {
+            var iterator = data.iterator();
+            while( iterator.hasNext() ) {
+                var row = iterator.next();
+                if( buildPartitions != null ) buildPartitions.add( GroupBy.key( row, rightKeys ), table.project( row ) );
+                else {
+                    table.add( row );
+                    if( table.size > memory ) {
+                        buildPartitions = new Partitions( "build" );
+                        table.spill( buildPartitions );
+                        table = new Table( rightKeys, values );
+                    }
+                }
+            }
+        } catch( IOException e ) {
+            if( buildPartitions != null ) buildPartitions.close();
+            throw new UncheckedIOException( e );
+        } catch( RuntimeException | Error e ) {
+            if( buildPartitions != null ) buildPartitions.close();
+            throw e;
+        }
+
+        if( buildPartitions == null ) {
+            var built = table;
+            built.build();
+            return TsvStream.of( headers, probe.stripHeaders().toStream()
+                .flatMap( line -> built.probe( line, leftKeys, width, outer ).stream() ) );
+        }
+
+        var spilled = buildPartitions;
+        Partitions probePartitions = null;
+        try( var data = probe.stripHeaders().toStream() ) {
+            spilled.finish();
+            probePartitions = new Partitions( "probe" );
+            var iterator = data.iterator();
+            while( iterator.hasNext() ) {
+                var line = iterator.next();
+                probePartitions.add( GroupBy.key( line, leftKeys ), line );
+            }
+            probePartitions.finish();
+        } catch( IOException e ) {
+            spilled.close();
+            if( probePartitions != null ) probePartitions.close();
+            throw new UncheckedIOException( e );
+        } catch( RuntimeException | Error e ) {
+            spilled.close();
+            if( probePartitions != null ) probePartitions.close();
+            throw e;
+        }
+
+        var probed = probePartitions;
+        return TsvStream.of( headers, Stream.of( IntStream.range( 0, partitions ).boxed() )
+            .flatMap( partition -> {
+                var loaded = new Table( IntStream.range( 0, rightKeys.length ).toArray(),
+                    IntStream.range( rightKeys.length, rightKeys.length + values.length ).toArray() );
+                try( var rows = BinaryRows.stream( spilled.files[partition] ) ) {
+                    rows.forEach( loaded::add );
+                }
+                loaded.build();
+                return BinaryRows.stream( probed.files[partition] )
+                    .flatMap( line -> loaded.probe( line, leftKeys, width, outer ).stream() );
+            } )
+            .onClose( () -> {
+                spilled.close();
+                probed.close();
+            } ) );
+    }
+
+    /**
+     * build side rows as key cells followed by value cells, {@link #size} is a rough heap estimate
+     */
+    private static class Table {
+        private final int[] keys;
+        private final int[] values;
+        private final Object2IntOpenHashMap<String> heads = new Object2IntOpenHashMap<>();
+        private final IntArrayList next = new IntArrayList();
+        private final IntArrayList last = new IntArrayList();
+        private ColumnarTsv.Builder builder = new ColumnarTsv.Builder( List.of() );
+        private ColumnarTsv rows;
+        private int count = 0;
+        long size = 0;
+
+        Table( int[] keys, int[] values ) {
+            this.keys = keys;
+            this.values = values;
+            this.heads.defaultReturnValue( -1 );
+        }
+
+        List<String> project( List<String> row ) {
+            var result = new ArrayList<String>( keys.length + values.length );
+            for( var key : keys ) result.add( cell( row, key ) );
+            for( var value : values ) result.add( cell( row, value ) );
+            return result;
+        }
+
+        void add( List<String> row ) {
+            var projected = project( row );
+            builder.add( projected );
+            size += 32;
+            for( var cell : projected ) size += 4 + cell.length();
+
+            var key = GroupBy.key( row, keys );
+            var index = count++;
+            next.add( -1 );
+            last.add( index );
+            var head = heads.getInt( key );
+            if( head < 0 ) {
+                heads.put( key, index );
+                size += 48 + key.length();
+            } else {
+                next.set( last.getInt( head ), index );
+                last.set( head, index );
+            }
+        }
+
+        void build() {
+            rows = builder.build();
+            builder = null;
+        }
+
+        void spill( Partitions partitions ) throws IOException {
+            build();
+            var keyColumns = IntStream.range( 0, keys.length ).toArray();
+            for( var i = 0; i < count; i++ ) {
+                var row = rows.data.get( i );
+                partitions.add( GroupBy.key( row, keyColumns ), row );
+            }
+        }
+
+        List<List<String>> probe( List<String> line, int[] lineKeys, int width, boolean outer ) {
+            var row = heads.getInt( GroupBy.key( line, lineKeys ) );
+            if( row < 0 ) return outer ? List.of( joined( line, width, -1 ) ) : List.of();
+
+            var result = new ArrayList<List<String>>( 1 );
+            for( ; row >= 0; row = next.getInt( row ) ) result.add( joined( line, width, row ) );
+            return result;
+        }
+
+        private List<String> joined( List<String> line, int width, int row ) {
+            var result = new ArrayList<String>( Math.max( line.size(), width ) + values.length );
+            result.addAll( line );
+            while( result.size() < width ) result.add( "" );
+            for( var i = 0; i < values.length; i++ ) result.add( row < 0 ? "" : rows.get( row, keys.length + i ) );
+            return result;
+        }
+
+        private static String cell( List<String> row, int index ) {
+            return index < row.size() ? row.get( index ) : "";
+        }
+    }
+
+    private class Partitions implements Closeable {
+        private final Path[] files = new Path[partitions];
+        private final DataOutputStream[] outs = new DataOutputStream[partitions];
+
+        Partitions( String name ) throws IOException {
+            try {
+                for( var i = 0; i < partitions; i++ ) {
+                    files[i] = Files.createTempFile( tmp, "tsv-join-" + name, ".part" );
+                    outs[i] = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( files[i] ), BinaryRows.BUFFER_SIZE ) );
+                }
+            } catch( IOException e ) {
+                close();
+                throw e;
+            }
+        }
+
+        void add( String key, List<String> row ) throws IOException {
+            BinaryRows.write( outs[Math.floorMod( HashCommon.mix( key.hashCode() ), partitions )], row );
+        }
+
+        void finish() throws IOException {
+            for( var i = 0; i < partitions; i++ ) {
+                outs[i].close();
+                outs[i] = null;
+            }
+        }
+
+        @Override
+        public void close() {
+            for( var i = 0; i < partitions; i++ )
+                try {
+                    if( outs[i] != null ) outs[i].close();
+                    if( files[i] != null ) Files.deleteIfExists( files[i] );
+                } catch( IOException ignored ) {
+                }
+        }
+    }
+}
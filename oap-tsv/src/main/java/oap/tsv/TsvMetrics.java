@@ -0,0 +1,126 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import lombok.ToString;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Ingestion counters of a feed. Updated with {@link LongAdder}s so a metrics instance can be shared by parallel streams.
+ * Timings are in nanoseconds: {@code read} is spent pulling (and decompressing) input, {@code split} turning lines
+ * into cells and {@code map} in {@link oap.tsv.mapper.Mapper}.
+ */
+@ToString( of = "name" )
+public class TsvMetrics {
+    public final String name;
+    public final LongAdder rows = new LongAdder();
+    public final LongAdder bytes = new LongAdder();
+    public final LongAdder rejected = new LongAdder();
+    public final LongAdder filtered = new LongAdder();
+    public final LongAdder readNanos = new LongAdder();
+    public final LongAdder splitNanos = new LongAdder();
+    public final LongAdder mapNanos = new LongAdder();
+
+    public TsvMetrics( String name ) {
+        this.name = name;
+    }
+
+    public TsvMetrics register( Registry registry ) {
+        registry.register( this );
+        return this;
+    }
+
+    public Map<String, Long> snapshot() {
+        var snapshot = new LinkedHashMap<String, Long>();
+        snapshot.put( "rows", rows.sum() );
+        snapshot.put( "bytes", bytes.sum() );
+        snapshot.put( "rejected", rejected.sum() );
+        snapshot.put( "filtered", filtered.sum() );
+        snapshot.put( "readNanos", readNanos.sum() );
+        snapshot.put( "splitNanos", splitNanos.sum() );
+        snapshot.put( "mapNanos", mapNanos.sum() );
+        return snapshot;
+    }
+
+    /**
+     * counts bytes read through the stream
+     */
+    public InputStream count( InputStream is ) {
+        return new FilterInputStream( is ) {
+            @Override
+            public int read() throws IOException {
+                var b = super.read();
+                if( b >= 0 ) bytes.increment();
+                return b;
+            }
+
+            @Override
+            public int read( byte[] buffer, int offset, int length ) throws IOException {
+                var read = super.read( buffer, offset, length );
+                if( read > 0 ) bytes.add( read );
+                return read;
+            }
+        };
+    }
+
+    /**
+     * counts lines pulled through the iterator as rows, with the time spent pulling them as read time
+     */
+    public <T> Iterator<T> count( Iterator<T> lines ) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                var start = System.nanoTime();
+                var hasNext = lines.hasNext();
+                readNanos.add( System.nanoTime() - start );
+                return hasNext;
+            }
+
+            @Override
+            public T next() {
+                var start = System.nanoTime();
+                var line = lines.next();
+                readNanos.add( System.nanoTime() - start );
+                rows.increment();
+                return line;
+            }
+        };
+    }
+
+    /**
+     * exports metrics to a monitoring system, e.g. as function counters over the adders
+     */
+    @FunctionalInterface
+    public interface Registry {
+        void register( TsvMetrics metrics );
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Row backed by the raw UTF-8 bytes of a line. Cells are decoded on {@link #get(int)}.
+ */
+public class TsvRow extends AbstractList<String> implements RandomAccess {
+    public final byte[] bytes;
+    public final int[] cells;
+
+    public TsvRow( byte[] bytes, int[] cells ) {
+        this.bytes = bytes;
+        this.cells = cells;
+    }
+
+    public static TsvRow of( byte[] buffer, int offset, int len, IntArrayList cells ) {
+        cells.clear();
+        TsvInputStream.split( buffer, offset, len, cells );
+
+        return new TsvRow( Arrays.copyOfRange( buffer, offset, offset + len ), cells.toIntArray() );
+    }
+
+    /**
+     * row of the {@code columns} cells only, cells missing in the line are empty
+     */
+    public static TsvRow of( byte[] buffer, int offset, int len, IntArrayList cells, int[] columns ) {
+        var limit = 0;
+        for( var column : columns ) limit = Math.max( limit, column + 1 );
+
+        cells.clear();
+        TsvInputStream.split( buffer, offset, len, cells, limit );
+
+        var size = Math.max( columns.length - 1, 0 );
+        for( var column : columns )
+            if( column < cells.size() ) size += TsvInputStream.cellLength( cells, column );
+
+        var bytes = new byte[size];
+        var ends = new int[columns.length];
+        var position = 0;
+        for( var i = 0; i < columns.length; i++ ) {
+            var column = columns[i];
+            if( column < cells.size() ) {
+                var length = TsvInputStream.cellLength( cells, column );
+                System.arraycopy( buffer, offset + TsvInputStream.cellOffset( cells, column ), bytes, position, length );
+                position += length;
+            }
+            if( position < size ) bytes[position] = '\t';
+            ends[i] = ++position;
+        }
+
+        return new TsvRow( bytes, ends );
+    }
+
+    public int offset( int index ) {
+        return index == 0 ? 0 : cells[index - 1];
+    }
+
+    public int length( int index ) {
+        return cells[index] - offset( index ) - 1;
+    }
+
+    @Override
+    public String get( int index ) {
+        Objects.checkIndex( index, cells.length );
+
+        return new String( bytes, offset( index ), length( index ), UTF_8 );
+    }
+
+    public String get( int index, Interner interner ) {
+        Objects.checkIndex( index, cells.length );
+
+        return interner.intern( bytes, offset( index ), length( index ) );
+    }
+
+    @Override
+    public int size() {
+        return cells.length;
+    }
+}
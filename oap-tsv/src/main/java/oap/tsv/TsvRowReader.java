@@ -0,0 +1,187 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class TsvRowReader implements Iterator<TsvRow>, Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream is;
+    private final IntArrayList cells = new IntArrayList();
+    public int[] columns;
+    public LinePredicate filter;
+    /**
+     * the first line is a header, {@link #filter} does not apply to it
+     */
+    public boolean header;
+    public TsvMetrics metrics;
+    private byte[] buffer;
+    private int position = 0;
+    private int limit = 0;
+    private boolean eof = false;
+    private TsvRow next;
+    private boolean first = true;
+
+    public TsvRowReader( InputStream is ) {
+        this( is, DEFAULT_BUFFER_SIZE );
+    }
+
+    public TsvRowReader( InputStream is, int bufferSize ) {
+        this.is = is;
+        this.buffer = new byte[bufferSize];
+    }
+
+    @Override
+    public boolean hasNext() {
+        if( next == null ) next = readRow();
+        return next != null;
+    }
+
+    @Override
+    public TsvRow next() {
+        if( !hasNext() ) throw new NoSuchElementException();
+        var row = next;
+        next = null;
+        return row;
+    }
+
+    private TsvRow readRow() {
+        try {
+            var scan = position;
+            while( true ) {
+                for( var i = scan; i < limit; i++ )
+                    if( buffer[i] == '\n' ) {
+                        var from = position;
+                        position = i + 1;
+                        var row = line( from, i );
+                        if( row != null ) return row;
+                    }
+
+                if( eof ) {
+                    if( position == limit ) return null;
+                    var from = position;
+                    position = limit;
+                    return line( from, limit );
+                }
+
+                if( position > 0 ) {
+                    System.arraycopy( buffer, position, buffer, 0, limit - position );
+                    limit -= position;
+                    position = 0;
+                }
+                scan = limit;
+                if( limit == buffer.length ) buffer = Arrays.copyOf( buffer, buffer.length * 2 );
+
+                var start = metrics != null ? System.nanoTime() : 0;
+                var read = is.read( buffer, limit, buffer.length - limit );
+                if( metrics != null ) metrics.readNanos.add( System.nanoTime() - start );
+                if( read < 0 ) eof = true;
+                else limit += read;
+            }
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private TsvRow line( int from, int to ) {
+        var header = this.header && first;
+        first = false;
+        if( metrics == null ) return accept( buffer, from, to, cells, filter, header ) ? row( from, to ) : null;
+
+        var start = System.nanoTime();
+        metrics.rows.increment();
+        var row = accept( buffer, from, to, cells, filter, header ) ? row( from, to ) : null;
+        if( row == null ) metrics.filtered.increment();
+        metrics.splitNanos.add( System.nanoTime() - start );
+        return row;
+    }
+
+    private TsvRow row( int from, int to ) {
+        return row( buffer, from, to, cells, columns );
+    }
+
+    /**
+     * @param header the line is the header of an input with headers, which is never filtered
+     */
+    static boolean accept( byte[] buffer, int from, int to, IntArrayList cells, LinePredicate filter, boolean header ) {
+        if( header || filter == null ) return true;
+        if( to > from && buffer[to - 1] == '\r' ) to--;
+
+        cells.clear();
+        TsvInputStream.split( buffer, from, to - from, cells, filter.limit() );
+        return filter.test( buffer, from, cells );
+    }
+
+    /**
+     * splits a block of whole lines, the last one may be unterminated
+     *
+     * @param header the block starts with the header line of an input with headers
+     */
+    static List<List<String>> rows( byte[] bytes, int length, IntArrayList cells, LinePredicate filter, boolean header ) {
+        var rows = new ArrayList<List<String>>();
+        var start = 0;
+        for( var i = 0; i < length; i++ )
+            if( bytes[i] == '\n' ) {
+                if( accept( bytes, start, i, cells, filter, header && start == 0 ) )
+                    rows.add( row( bytes, start, i, cells ) );
+                start = i + 1;
+            }
+        if( start < length && accept( bytes, start, length, cells, filter, header && start == 0 ) )
+            rows.add( row( bytes, start, length, cells ) );
+
+        return rows;
+    }
+
+    static TsvRow row( byte[] buffer, int from, int to, IntArrayList cells ) {
+        return row( buffer, from, to, cells, null );
+    }
+
+    static TsvRow row( byte[] buffer, int from, int to, IntArrayList cells, int[] columns ) {
+        if( to > from && buffer[to - 1] == '\r' ) to--;
+        return columns == null
+            ? TsvRow.of( buffer, from, to - from, cells )
+            : TsvRow.of( buffer, from, to - from, cells, columns );
+    }
+
+    @Override
+    public void close() {
+        try {
+            is.close();
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Header layout resolved once: name to index maps for decoded and raw (UTF-8) names.
+ * Instances are immutable and shared between streams with the same header through {@link #of(List)}.
+ */
+@ToString( of = "headers" )
+@EqualsAndHashCode( of = "headers" )
+public final class TsvSchema {
+    public static final int MAX_CACHED = 1024;
+    private static final Map<List<String>, TsvSchema> cache = new ConcurrentHashMap<>();
+
+    public final List<String> headers;
+    private final Object2IntOpenHashMap<String> indices;
+    private final Int2ObjectOpenHashMap<int[]> byHash;
+    private final byte[][] names;
+
+    private TsvSchema( List<String> headers ) {
+        this.headers = headers;
+        this.indices = new Object2IntOpenHashMap<>( headers.size() );
+        this.indices.defaultReturnValue( -1 );
+        this.byHash = new Int2ObjectOpenHashMap<>( headers.size() );
+        this.names = new byte[headers.size()][];
+
+        for( var i = headers.size() - 1; i >= 0; i-- ) {
+            var name = headers.get( i );
+            indices.put( name, i );
+            names[i] = name.getBytes( UTF_8 );
+
+            var hash = Bytes.hash( names[i], 0, names[i].length );
+            var bucket = byHash.get( hash );
+            if( bucket == null ) byHash.put( hash, new int[] { i } );
+            else {
+                var extended = new int[bucket.length + 1];
+                extended[0] = i;
+                System.arraycopy( bucket, 0, extended, 1, bucket.length );
+                byHash.put( hash, extended );
+            }
+        }
+    }
+
+    public static TsvSchema of( List<String> headers ) {
+        var schema = cache.get( headers );
+        if( schema != null ) return schema;
+
+        if( cache.size() >= MAX_CACHED ) cache.clear();
+        var copy = List.copyOf( headers );
+        return cache.computeIfAbsent( copy, TsvSchema::new );
+    }
+
+    public static TsvSchema of( String... headers ) {
+        return of( List.of( headers ) );
+    }
+
+    public int size() {
+        return headers.size();
+    }
+
+    /**
+     * @return index of the first column with the name or -1
+     */
+    public int indexOf( String name ) {
+        return indices.getInt( name );
+    }
+
+    /**
+     * @return index of the first column named by the bytes or -1
+     */
+    public int indexOf( byte[] bytes, int offset, int length ) {
+        var bucket = byHash.get( Bytes.hash( bytes, offset, length ) );
+        if( bucket != null )
+            for( var index : bucket ) if( Bytes.equals( bytes, offset, length, names[index] ) ) return index;
+        return -1;
+    }
+
+    /**
+     * @return index of the column named as the cell of the line or -1
+     */
+    public int indexOf( TsvInputStream.Line line, int cell ) {
+        return indexOf( line.buffer, TsvInputStream.cellOffset( line.cells, cell ), TsvInputStream.cellLength( line.cells, cell ) );
+    }
+
+    /**
+     * @return indices of the names, -1 for unknown ones
+     */
+    public int[] indices( String... names ) {
+        var result = new int[names.length];
+        for( var i = 0; i < names.length; i++ ) result[i] = indexOf( names[i] );
+        return result;
+    }
+
+    /**
+     * @throws IllegalArgumentException if a name is not in the header
+     */
+    public int[] require( String... names ) {
+        var result = indices( names );
+        for( var i = 0; i < result.length; i++ )
+            if( result[i] < 0 ) throw new IllegalArgumentException( "unknown header " + names[i] + " in " + headers );
+        return result;
+    }
+
+    public byte[] name( int index ) {
+        return Arrays.copyOf( names[index], names[index].length );
+    }
+}
@@ -0,0 +1,360 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import oap.util.Stream;
+import org.apache.commons.lang3.StringUtils;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterators;
+import java.util.stream.StreamSupport;
+
+import static java.util.Spliterator.NONNULL;
+import static java.util.Spliterator.ORDERED;
+
+/**
+ * External merge sort. Rows are collected up to the {@link #memory} estimate, sorted in parallel and spilled to
+ * temporary run files in a binary row format, the runs are merged back k-way, at most {@link #mergeFactor} at a time.
+ * The sort is stable, an empty cell is the smallest value of its key, so it comes first for ascending keys and last
+ * for descending ones. The run files are deleted when the result stream is closed.
+ */
+public class TsvSorter {
+    public static final long DEFAULT_MEMORY = 256L * 1024 * 1024;
+    public static final int DEFAULT_MERGE_FACTOR = 64;
+
+    public long memory = DEFAULT_MEMORY;
+    public int mergeFactor = DEFAULT_MERGE_FACTOR;
+    public Path tmp = Path.of( System.getProperty( "java.io.tmpdir" ) );
+
+    public TsvSorter withMemory( long memory ) {
+        this.memory = memory;
+        return this;
+    }
+
+    public TsvSorter withMergeFactor( int mergeFactor ) {
+        this.mergeFactor = mergeFactor;
+        return this;
+    }
+
+    public TsvSorter withTmp( Path tmp ) {
+        this.tmp = tmp;
+        return this;
+    }
+
+    public TsvStream sort( TsvStream stream, Key... keys ) {
+        var tsv = stream.withHeaders();
+        var names = new String[keys.length];
+        for( var i = 0; i < keys.length; i++ ) names[i] = keys[i].name;
+        var columns = tsv.schema().require( names );
+        var comparator = comparator( keys, columns );
+
+        var runs = new ArrayList<Path>();
+        var rows = new ArrayList<Row>();
+        try( var data = tsv.stripHeaders().toStream() ) {
+            var size = 0L;
+            var iterator = data.iterator();
+            while( iterator.hasNext() ) {
+                var row = Row.of( iterator.next(), keys, columns );
+                rows.add( row );
+                size += row.size();
+                if( size >= memory ) {
+                    runs.add( write( sort( rows, comparator ), keys.length ) );
+                    rows.clear();
+                    size = 0;
+                }
+            }
+
+            var sorted = sort( rows, comparator );
+            rows = null;
+            if( runs.isEmpty() )
+                return TsvStream.of( tsv.headers(), Stream.of( Arrays.stream( sorted ).map( Row::list ) ) );
+
+            while( runs.size() > mergeFactor ) runs = merge( runs, comparator, keys.length );
+
+            var merge = new Merge( runs, sorted, comparator, keys.length );
+            return TsvStream.of( tsv.headers(), Stream.of( StreamSupport.stream(
+                    Spliterators.spliteratorUnknownSize( merge, ORDERED | NONNULL ), false )
+                .onClose( merge::close ) ).map( Row::list ) );
+        } catch( IOException e ) {
+            delete( runs );
+            throw new UncheckedIOException( e );
+        } catch( RuntimeException | Error e ) {
+            delete( runs );
+            throw e;
+        }
+    }
+
+    private static Row[] sort( List<Row> rows, Comparator<Row> comparator ) {
+        var array = rows.toArray( new Row[0] );
+        Arrays.parallelSort( array, comparator );
+        return array;
+    }
+
+    private ArrayList<Path> merge( List<Path> runs, Comparator<Row> comparator, int keys ) throws IOException {
+        var result = new ArrayList<Path>();
+        try {
+            for( var from = 0; from < runs.size(); from += mergeFactor ) {
+                var group = runs.subList( from, Math.min( from + mergeFactor, runs.size() ) );
+                try( var merge = new Merge( group, new Row[0], comparator, keys ) ) {
+                    result.add( write( merge, keys ) );
+                }
+            }
+            return result;
+        } catch( IOException | RuntimeException e ) {
+            delete( result );
+            throw e;
+        }
+    }
+
+    private Path write( Row[] rows, int keys ) throws IOException {
+        return write( Arrays.asList( rows ).iterator(), keys );
+    }
+
+    private Path write( Iterator<Row> rows, int keys ) throws IOException {
+        var run = Files.createTempFile( tmp, "tsv-sort", ".run" );
+        try( var out = new DataOutputStream( new BufferedOutputStream( Files.newOutputStream( run ), BinaryRows.BUFFER_SIZE ) ) ) {
+            while( rows.hasNext() ) rows.next().write( out, keys );
+        } catch( IOException | RuntimeException e ) {
+            Files.deleteIfExists( run );
+            throw e;
+        }
+        return run;
+    }
+
+    private static void delete( List<Path> runs ) {
+        for( var run : runs )
+            try {
+                Files.deleteIfExists( run );
+            } catch( IOException ignored ) {
+            }
+    }
+
+    private static Comparator<Row> comparator( Key[] keys, int[] columns ) {
+        Comparator<Row> result = ( a, b ) -> 0;
+        for( var i = 0; i < keys.length; i++ ) {
+            var key = i;
+            var column = columns[i];
+            Comparator<Row> comparator = keys[i].type == Type.STRING
+                ? ( a, b ) -> a.cell( column ).compareTo( b.cell( column ) )
+                : ( a, b ) -> Double.compare( a.numbers[key], b.numbers[key] );
+            result = result.thenComparing( keys[i].ascending ? comparator : comparator.reversed() );
+        }
+        return result;
+    }
+
+    public enum Type {
+        STRING, NUMERIC, DATETIME
+    }
+
+    public record Key( String name, Type type, boolean ascending ) {
+        public static Key string( String name ) {
+            return new Key( name, Type.STRING, true );
+        }
+
+        public static Key numeric( String name ) {
+            return new Key( name, Type.NUMERIC, true );
+        }
+
+        /**
+         * epoch millis or ISO-8601, UTC by default
+         */
+        public static Key dateTime( String name ) {
+            return new Key( name, Type.DATETIME, true );
+        }
+
+        public Key descending() {
+            return new Key( name, type, false );
+        }
+    }
+
+    /**
+     * cells plus the numeric and date-time keys parsed once, as doubles, empty cells are {@code -Infinity}
+     */
+    private record Row( String[] cells, double[] numbers ) {
+        static Row of( List<String> line, Key[] keys, int[] columns ) {
+            var cells = line.toArray( new String[0] );
+            double[] numbers = null;
+            for( var i = 0; i < keys.length; i++ ) {
+                if( keys[i].type == Type.STRING ) continue;
+                if( numbers == null ) numbers = new double[keys.length];
+                var value = columns[i] < cells.length ? cells[columns[i]] : "";
+                numbers[i] = value.isEmpty() ? Double.NEGATIVE_INFINITY
+                    : keys[i].type == Type.NUMERIC ? Double.parseDouble( value )
+                        : StringUtils.isNumeric( value ) ? Long.parseLong( value )
+                            : new DateTime( value, DateTimeZone.UTC ).getMillis();
+            }
+            return new Row( cells, numbers );
+        }
+
+        String cell( int column ) {
+            return column < cells.length ? cells[column] : "";
+        }
+
+        List<String> list() {
+            return Arrays.asList( cells );
+        }
+
+        /**
+         * rough heap footprint
+         */
+        long size() {
+            var size = 64L + ( numbers != null ? 16L + 8L * numbers.length : 0 );
+            for( var cell : cells ) size += 48L + cell.length();
+            return size;
+        }
+
+        void write( DataOutputStream out, int keys ) throws IOException {
+            BinaryRows.write( out, list() );
+            out.writeBoolean( numbers != null );
+            if( numbers != null ) for( var i = 0; i < keys; i++ ) out.writeDouble( numbers[i] );
+        }
+
+        static Row read( DataInputStream in, int keys ) throws IOException {
+            var cells = BinaryRows.read( in );
+            if( cells == null ) return null;
+
+            double[] numbers = null;
+            if( in.readBoolean() ) {
+                numbers = new double[keys];
+                for( var i = 0; i < keys; i++ ) numbers[i] = in.readDouble();
+            }
+            return new Row( cells, numbers );
+        }
+    }
+
+    /**
+     * k-way merge of the runs followed by the rows still in memory, ties go to the earlier source
+     */
+    private static class Merge implements Iterator<Row>, Closeable {
+        private final List<Path> runs;
+        private final List<DataInputStream> inputs = new ArrayList<>();
+        private final PriorityQueue<Source> queue;
+        private final int keys;
+
+        Merge( List<Path> runs, Row[] rows, Comparator<Row> comparator, int keys ) throws IOException {
+            this.runs = runs;
+            this.keys = keys;
+            this.queue = new PriorityQueue<>( runs.size() + 1,
+                Comparator.<Source, Row>comparing( source -> source.head, comparator ).thenComparingInt( source -> source.index ) );
+
+            try {
+                for( var run : runs ) {
+                    var in = new DataInputStream( new BufferedInputStream( Files.newInputStream( run ), BinaryRows.BUFFER_SIZE ) );
+                    inputs.add( in );
+                    add( new Source( inputs.size(), readRows( in ) ) );
+                }
+                add( new Source( inputs.size() + 1, Arrays.asList( rows ).iterator() ) );
+            } catch( IOException | RuntimeException e ) {
+                close();
+                throw e;
+            }
+        }
+
+        private Iterator<Row> readRows( DataInputStream in ) {
+            return new Iterator<>() {
+                private Row next = read();
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Row next() {
+                    var row = next;
+                    next = read();
+                    return row;
+                }
+
+                private Row read() {
+                    try {
+                        return Row.read( in, keys );
+                    } catch( IOException e ) {
+                        throw new UncheckedIOException( e );
+                    }
+                }
+            };
+        }
+
+        private void add( Source source ) {
+            if( source.rows.hasNext() ) {
+                source.head = source.rows.next();
+                queue.add( source );
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !queue.isEmpty();
+        }
+
+        @Override
+        public Row next() {
+            var source = queue.poll();
+            if( source == null ) throw new NoSuchElementException();
+            var row = source.head;
+            add( source );
+            return row;
+        }
+
+        @Override
+        public void close() {
+            for( var in : inputs )
+                try {
+                    in.close();
+                } catch( IOException ignored ) {
+                }
+            delete( runs );
+        }
+    }
+
+    private static class Source {
+        final int index;
+        final Iterator<Row> rows;
+        Row head;
+
+        Source( int index, Iterator<Row> rows ) {
+            this.index = index;
+            this.rows = rows;
+        }
+    }
+}
@@ -28,19 +28,22 @@ import lombok.EqualsAndHashCode;
 import lombok.ToString;
 import oap.util.Arrays;
 import oap.util.IndexTranslatingList;
-import oap.util.Lists;
 import oap.util.Stream;
 
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.UncheckedIOException;
-import java.util.Iterator;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collector;
+import java.util.stream.StreamSupport;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
 import static oap.tsv.Printer.print;
 import static oap.tsv.Tsv.DELIMITER_COMMA;
 import static oap.tsv.Tsv.DELIMITER_TAB;
@@ -68,17 +71,38 @@ public class TsvStream {
         return new TsvStream( headers, data );
     }
 
+    /**
+     * takes the first line as headers, the rest keeps the source spliterator so it can still be split for parallel processing
+     */
     public TsvStream withHeaders() {
         if( !headers.isEmpty() ) return this;
-        Iterator<List<String>> iterator = data.iterator();
-        if( iterator.hasNext() ) return new TsvStream( iterator.next(), Stream.of( iterator ) );
-        return of( Stream.of( iterator ) );
+        var spliterator = data.spliterator();
+        var first = new ArrayList<List<String>>( 1 );
+        spliterator.tryAdvance( first::add );
+        var rest = Stream.of( StreamSupport.stream( new Rest<>( spliterator ), data.isParallel() ).onClose( data::close ) );
+        return first.isEmpty() ? of( rest ) : new TsvStream( first.get( 0 ), rest );
+    }
+
+    public TsvStream parallel() {
+        return new TsvStream( headers, data.parallel() );
+    }
+
+    public TsvStream sequential() {
+        return new TsvStream( headers, data.sequential() );
+    }
+
+    public boolean isParallel() {
+        return data.isParallel();
     }
 
     public List<String> headers() {
         return headers;
     }
 
+    public TsvSchema schema() {
+        return TsvSchema.of( headers );
+    }
+
     public TsvStream select( int... columns ) {
         return new TsvStream(
             this.headers.isEmpty() ? this.headers : new IndexTranslatingList<>( this.headers, columns ),
@@ -87,7 +111,7 @@ public class TsvStream {
 
     public TsvStream select( String... headers ) {
         TsvStream tsv = withHeaders();
-        return tsv.select( Lists.indices( tsv.headers, headers ) );
+        return tsv.select( TsvSchema.of( tsv.headers ).indices( headers ) );
     }
 
     public TsvStream select( List<String> headers ) {
@@ -103,10 +127,58 @@ public class TsvStream {
             : new TsvStream( List.of(), this.data );
     }
 
+    public GroupBy groupBy( String... keys ) {
+        var tsv = withHeaders();
+        return new GroupBy( tsv, tsv.schema().require( keys ) );
+    }
+
+    public GroupBy groupBy( int... keys ) {
+        return new GroupBy( this, keys );
+    }
+
+    /**
+     * sorts through temporary files once the rows exceed the default {@link TsvSorter} memory budget
+     */
+    public TsvStream sort( TsvSorter.Key... keys ) {
+        return new TsvSorter().sort( this, keys );
+    }
+
+    /**
+     * inner hash join with {@code right} on the key columns, see {@link TsvJoin}
+     */
+    public TsvStream join( TsvStream right, String... keys ) {
+        return new TsvJoin().inner( this, right, keys );
+    }
+
+    /**
+     * left hash join with {@code right} on the key columns, see {@link TsvJoin}
+     */
+    public TsvStream leftJoin( TsvStream right, String... keys ) {
+        return new TsvJoin().left( this, right, keys );
+    }
+
+    /**
+     * first row of every key, exact and spilling to temporary files when the keys exceed memory, see {@link TsvDedup}
+     */
+    public TsvStream distinct( String... keys ) {
+        return new TsvDedup().exact( this, keys );
+    }
+
+    /**
+     * first row of every key, a row with a new key is dropped with the false positive rate {@code fpp}
+     */
+    public TsvStream approximateDistinct( long expected, double fpp, String... keys ) {
+        return TsvDedup.approximate( this, expected, fpp, keys );
+    }
+
     public TsvStream filter( Predicate<List<String>> filter ) {
         return new TsvStream( this.headers, data.filter( filter ) );
     }
 
+    public TsvStream map( Function<List<String>, List<String>> mapper ) {
+        return new TsvStream( this.headers, data.map( mapper ) );
+    }
+
     public <E> Stream<E> mapToObj( Function<List<String>, ? extends E> mapper ) {
         return data.map( mapper );
     }
@@ -135,29 +207,90 @@ public class TsvStream {
         return new Tsv( headers, data.toList() );
     }
 
+    public ColumnarTsv toColumnarTsv() {
+        return ColumnarTsv.of( this );
+    }
+
+    /**
+     * headers are accumulated before the data. A parallel stream accumulates them into a container of their own, which is
+     * combined in front of the merged per-thread containers.
+     */
     public <R, A> R collect( Collector<List<String>, A, R> collector ) {
+        if( headers.isEmpty() ) return data.collect( collector );
+
         var container = collector.supplier().get();
-        if( !headers.isEmpty() ) collector.accumulator().accept( container, headers );
-        return data.collect( Collector.of( () -> container,
-            collector.accumulator(),
-            collector.combiner(),
-            collector.finisher(),
-            collector.characteristics().toArray( new Collector.Characteristics[0] ) ) );
+        collector.accumulator().accept( container, headers );
+        if( !data.isParallel() ) {
+            data.forEachOrdered( line -> collector.accumulator().accept( container, line ) );
+            return collector.finisher().apply( container );
+        }
+
+        var characteristics = EnumSet.noneOf( Collector.Characteristics.class );
+        characteristics.addAll( collector.characteristics() );
+        characteristics.remove( Collector.Characteristics.IDENTITY_FINISH );
+        var rest = data.collect( Collector.of( collector.supplier(), collector.accumulator(), collector.combiner(),
+            characteristics.toArray( new Collector.Characteristics[0] ) ) );
+        return collector.finisher().apply( collector.combiner().apply( container, rest ) );
     }
 
+    /**
+     * A pipeline spliterator does not split once it has been advanced, so the rest falls back to batches.
+     */
+    private static class Rest<T> extends Spliterators.AbstractSpliterator<T> {
+        private final Spliterator<T> spliterator;
+
+        Rest( Spliterator<T> spliterator ) {
+            super( spliterator.estimateSize(), spliterator.characteristics() );
+            this.spliterator = spliterator;
+        }
+
+        @Override
+        public boolean tryAdvance( Consumer<? super T> action ) {
+            return spliterator.tryAdvance( action );
+        }
+
+        @Override
+        public void forEachRemaining( Consumer<? super T> action ) {
+            spliterator.forEachRemaining( action );
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            var split = spliterator.trySplit();
+            return split != null ? split : super.trySplit();
+        }
+
+        @Override
+        public long estimateSize() {
+            return spliterator.estimateSize();
+        }
+    }
 
     public static class Collectors {
+        /**
+         * writes lines in the order they are accumulated, a parallel stream cannot be merged and fails
+         */
         public static Collector<List<String>, ?, OutputStream> toTsvOutputStream( OutputStream os ) {
             return Collector.of(
-                () -> os,
-                ( out, line ) -> {
+                () -> new TsvWriter( os ),
+                ( writer, line ) -> {
                     try {
-                        out.write( print( line, DELIMITER_TAB ).getBytes( UTF_8 ) );
+                        writer.write( line );
                     } catch( IOException e ) {
                         throw new UncheckedIOException( e );
                     }
                 },
-                ( out, outIgnored ) -> out );
+                ( writer, writerIgnored ) -> {
+                    throw new IllegalStateException( "toTsvOutputStream cannot merge parallel results, use a sequential stream" );
+                },
+                writer -> {
+                    try {
+                        writer.flush();
+                        return os;
+                    } catch( IOException e ) {
+                        throw new UncheckedIOException( e );
+                    }
+                } );
         }
 
         public static Collector<List<String>, ?, String> toCsvString() {
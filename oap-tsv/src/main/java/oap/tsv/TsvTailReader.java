@@ -0,0 +1,295 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+/**
+ * Follows a growing tsv file, emitting complete lines only. The byte offset after the last emitted line is persisted
+ * to the {@link #withCheckpoint(Path) checkpoint} on {@link #commit()} together with the file key, so a restart
+ * resumes from there.
+ * <p>
+ * Every {@link #poll()} checks the file: a different file key means the file was rotated, the rest of the old file is
+ * emitted (including an unterminated last line) and the new one is read from the start; a file shorter than the offset
+ * was truncated and is read from the start. Without file keys only truncation is detected.
+ * Not thread-safe except for {@link #close()}.
+ */
+@Slf4j
+public class TsvTailReader implements Closeable {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+    public static final long DEFAULT_POLL_INTERVAL = 200;
+
+    public final Path file;
+    private Path checkpoint;
+    private long pollInterval = DEFAULT_POLL_INTERVAL;
+    private boolean skipHeaders = false;
+    private TsvMetrics metrics;
+    private final IntArrayList cells = new IntArrayList();
+    private byte[] buffer = new byte[DEFAULT_BUFFER_SIZE];
+    private int limit = 0;
+    private long offset = 0;
+    private FileChannel channel;
+    private Object fileKey;
+    private volatile boolean closed = false;
+
+    public TsvTailReader( Path file ) {
+        this.file = file;
+        this.checkpoint = file.resolveSibling( file.getFileName() + ".offset" );
+    }
+
+    public TsvTailReader withCheckpoint( Path checkpoint ) {
+        this.checkpoint = checkpoint;
+        return this;
+    }
+
+    public TsvTailReader withPollInterval( long pollInterval ) {
+        this.pollInterval = pollInterval;
+        return this;
+    }
+
+    public TsvTailReader withSkipHeaders( boolean skipHeaders ) {
+        this.skipHeaders = skipHeaders;
+        return this;
+    }
+
+    public TsvTailReader withBufferSize( int bufferSize ) {
+        this.buffer = new byte[bufferSize];
+        return this;
+    }
+
+    /**
+     * counts emitted rows and their bytes
+     */
+    public TsvTailReader withMetrics( TsvMetrics metrics ) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * byte offset after the last emitted line
+     */
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * @return the complete lines appended since the last poll, at most a buffer of them
+     */
+    public List<TsvRow> poll() {
+        var rows = new ArrayList<TsvRow>();
+        try {
+            if( channel == null && !open() ) return rows;
+
+            var attributes = attributes();
+            if( attributes == null || !Objects.equals( attributes.fileKey(), fileKey ) ) {
+                var read = read();
+                if( lines( rows, false ) || read > 0 ) return rows;
+                lines( rows, true );
+                if( attributes != null ) {
+                    log.info( "{} is rotated", file );
+                    reopen( 0 );
+                }
+                return rows;
+            }
+            if( attributes.size() < offset + limit ) {
+                log.warn( "{} is truncated to {} bytes, reading from the start", file, attributes.size() );
+                reopen( 0 );
+            }
+
+            read();
+            lines( rows, false );
+            return rows;
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    /**
+     * polls until {@link #close()} or interruption, committing after every non-empty batch passed to the consumer
+     */
+    public void follow( Consumer<TsvRow> consumer ) {
+        while( !closed ) {
+            List<TsvRow> rows;
+            try {
+                rows = poll();
+            } catch( UncheckedIOException e ) {
+                if( closed ) return;
+                throw e;
+            }
+            if( !rows.isEmpty() ) {
+                rows.forEach( consumer );
+                commit();
+            } else
+                try {
+                    Thread.sleep( pollInterval );
+                } catch( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+        }
+    }
+
+    /**
+     * persists the offset after the last emitted line
+     */
+    public void commit() {
+        try {
+            var tmp = Files.createTempFile( checkpoint.toAbsolutePath().getParent(), checkpoint.getFileName() + ".", ".tmp" );
+            try {
+                Files.writeString( tmp, fileKey + "\t" + offset + "\n", UTF_8 );
+                Files.move( tmp, checkpoint, REPLACE_EXISTING, ATOMIC_MOVE );
+            } catch( IOException e ) {
+                Files.deleteIfExists( tmp );
+                throw e;
+            }
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+
+    private boolean open() throws IOException {
+        var attributes = attributes();
+        if( attributes == null ) return false;
+
+        var resume = 0L;
+        if( Files.exists( checkpoint ) ) {
+            var saved = Files.readString( checkpoint, UTF_8 ).trim().split( "\t" );
+            if( saved.length == 2 && saved[0].equals( String.valueOf( attributes.fileKey() ) ) ) {
+                resume = savedOffset( saved[1] );
+                if( resume > attributes.size() ) {
+                    log.warn( "{} is shorter than the checkpoint offset {}, reading from the start", file, resume );
+                    resume = 0;
+                }
+            } else log.info( "{} does not match checkpoint {}, reading from the start", file, checkpoint );
+        }
+        reopen( resume );
+        return true;
+    }
+
+    /**
+     * @return 0 if the saved offset is corrupted
+     */
+    private long savedOffset( String saved ) {
+        try {
+            var offset = Long.parseLong( saved );
+            if( offset >= 0 ) return offset;
+        } catch( NumberFormatException ignored ) {
+        }
+        log.warn( "checkpoint {} has a corrupted offset {}, reading {} from the start", checkpoint, saved, file );
+        return 0;
+    }
+
+    private void reopen( long offset ) throws IOException {
+        if( channel != null ) channel.close();
+        var attributes = attributes();
+        channel = FileChannel.open( file );
+        fileKey = attributes != null ? attributes.fileKey() : null;
+        this.offset = offset;
+        this.limit = 0;
+    }
+
+    private BasicFileAttributes attributes() throws IOException {
+        try {
+            return Files.readAttributes( file, BasicFileAttributes.class );
+        } catch( NoSuchFileException e ) {
+            return null;
+        }
+    }
+
+    /**
+     * @return bytes read
+     */
+    private int read() throws IOException {
+        if( limit == buffer.length ) buffer = Arrays.copyOf( buffer, buffer.length * 2 );
+
+        var start = metrics != null ? System.nanoTime() : 0;
+        var read = channel.read( ByteBuffer.wrap( buffer, limit, buffer.length - limit ), offset + limit );
+        if( metrics != null ) metrics.readNanos.add( System.nanoTime() - start );
+        if( read <= 0 ) return 0;
+        limit += read;
+        return read;
+    }
+
+    /**
+     * @param last emit an unterminated last line too
+     * @return true if any line was emitted
+     */
+    private boolean lines( List<TsvRow> rows, boolean last ) {
+        var from = 0;
+        for( var i = 0; i < limit; i++ )
+            if( buffer[i] == '\n' ) {
+                emit( rows, from, i );
+                from = i + 1;
+            }
+        if( last && from < limit ) {
+            emit( rows, from, limit );
+            from = limit;
+        }
+
+        System.arraycopy( buffer, from, buffer, 0, limit - from );
+        limit -= from;
+        offset += from;
+        return from > 0;
+    }
+
+    private void emit( List<TsvRow> rows, int from, int to ) {
+        if( skipHeaders && offset + from == 0 ) return;
+        if( metrics != null ) {
+            metrics.rows.increment();
+            metrics.bytes.add( to - from + 1 );
+        }
+        rows.add( TsvRowReader.row( buffer, from, to, cells ) );
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        try {
+            if( channel != null ) channel.close();
+        } catch( IOException e ) {
+            throw new UncheckedIOException( e );
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+
+import static oap.tsv.Tsv.DELIMITER_TAB;
+
+/**
+ * Writes rows escaped the same way as {@link Printer}, encoding cells to UTF-8 straight into a reusable buffer.
+ */
+public class TsvWriter implements Closeable, Flushable {
+    public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+    private static final boolean[] SPECIAL = special( false );
+    private static final boolean[] SPECIAL_QUOTED = special( true );
+
+    private final OutputStream out;
+    private final WritableByteChannel channel;
+    private final byte delimiter;
+    private final boolean quoted;
+    private final boolean[] special;
+    private final byte[] buffer;
+    private int position = 0;
+    private boolean rowStart = true;
+
+    public TsvWriter( OutputStream out ) {
+        this( out, DELIMITER_TAB, false );
+    }
+
+    public TsvWriter( OutputStream out, char delimiter, boolean quoted ) {
+        this( out, null, delimiter, quoted, DEFAULT_BUFFER_SIZE );
+    }
+
+    public TsvWriter( WritableByteChannel channel ) {
+        this( channel, DELIMITER_TAB, false );
+    }
+
+    public TsvWriter( WritableByteChannel channel, char delimiter, boolean quoted ) {
+        this( null, channel, delimiter, quoted, DEFAULT_BUFFER_SIZE );
+    }
+
+    TsvWriter( OutputStream out, WritableByteChannel channel, char delimiter, boolean quoted, int bufferSize ) {
+        if( delimiter >= 0x80 ) throw new IllegalArgumentException( "delimiter must be an ascii character" );
+
+        this.out = out;
+        this.channel = channel;
+        this.delimiter = ( byte ) delimiter;
+        this.quoted = quoted;
+        this.special = quoted ? SPECIAL_QUOTED : SPECIAL;
+        this.buffer = new byte[Math.max( bufferSize, 16 )];
+    }
+
+    private static boolean[] special( boolean quoted ) {
+        var special = new boolean[128];
+        special['\n'] = true;
+        special['\r'] = true;
+        special['\t'] = true;
+        special['\\'] = true;
+        special['"'] = quoted;
+        return special;
+    }
+
+    public TsvWriter write( List<?> row ) throws IOException {
+        for( var i = 0; i < row.size(); i++ ) cell( row.get( i ) );
+        return endRow();
+    }
+
+    public TsvWriter cell( Object value ) throws IOException {
+        if( !rowStart ) put( delimiter );
+        rowStart = false;
+
+        escape( value instanceof CharSequence text ? text : String.valueOf( value ) );
+        return this;
+    }
+
+    public TsvWriter endRow() throws IOException {
+        put( ( byte ) '\n' );
+        rowStart = true;
+        return this;
+    }
+
+    private void escape( CharSequence text ) throws IOException {
+        var length = text.length();
+        if( length == 0 ) return;
+
+        if( quoted ) put( ( byte ) '"' );
+
+        var i = 0;
+        while( i < length ) {
+            if( position == buffer.length ) flushBuffer();
+            var end = Math.min( length, i + buffer.length - position );
+            while( i < end ) {
+                var c = text.charAt( i );
+                if( c >= 0x80 || special[c] ) break;
+                buffer[position++] = ( byte ) c;
+                i++;
+            }
+            if( i < end ) i = escape( text, i );
+        }
+
+        if( quoted ) put( ( byte ) '"' );
+    }
+
+    private int escape( CharSequence text, int i ) throws IOException {
+        if( position + 4 > buffer.length ) flushBuffer();
+
+        var c = text.charAt( i );
+        switch( c ) {
+            case '\n' -> put2( '\\', 'n' );
+            case '\r' -> put2( '\\', 'r' );
+            case '\t' -> put2( '\\', 't' );
+            case '\\' -> put2( '\\', '\\' );
+            case '"' -> put2( '"', '"' );
+            default -> {
+                if( c < 0x800 ) {
+                    buffer[position++] = ( byte ) ( 0xC0 | c >> 6 );
+                    buffer[position++] = ( byte ) ( 0x80 | c & 0x3F );
+                } else if( Character.isHighSurrogate( c ) && i + 1 < text.length()
+                    && Character.isLowSurrogate( text.charAt( i + 1 ) ) ) {
+                    var cp = Character.toCodePoint( c, text.charAt( i + 1 ) );
+                    buffer[position++] = ( byte ) ( 0xF0 | cp >> 18 );
+                    buffer[position++] = ( byte ) ( 0x80 | cp >> 12 & 0x3F );
+                    buffer[position++] = ( byte ) ( 0x80 | cp >> 6 & 0x3F );
+                    buffer[position++] = ( byte ) ( 0x80 | cp & 0x3F );
+                    return i + 2;
+                } else if( Character.isSurrogate( c ) ) {
+                    buffer[position++] = '?';
+                } else {
+                    buffer[position++] = ( byte ) ( 0xE0 | c >> 12 );
+                    buffer[position++] = ( byte ) ( 0x80 | c >> 6 & 0x3F );
+                    buffer[position++] = ( byte ) ( 0x80 | c & 0x3F );
+                }
+            }
+        }
+        return i + 1;
+    }
+
+    private void put2( char c1, char c2 ) {
+        buffer[position++] = ( byte ) c1;
+        buffer[position++] = ( byte ) c2;
+    }
+
+    private void put( byte b ) throws IOException {
+        if( position == buffer.length ) flushBuffer();
+        buffer[position++] = b;
+    }
+
+    private void flushBuffer() throws IOException {
+        if( out != null ) out.write( buffer, 0, position );
+        else {
+            var bb = ByteBuffer.wrap( buffer, 0, position );
+            while( bb.hasRemaining() ) channel.write( bb );
+        }
+        position = 0;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        flushBuffer();
+        if( out != null ) out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBuffer();
+        } finally {
+            if( out != null ) out.close();
+            else channel.close();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link TsvInputStream#split(byte[], int, int, IntArrayList)} with the Vector API.
+ * Blocks without backslashes (and not following one) take tab positions straight from the comparison mask,
+ * other blocks are walked byte by byte to keep the escape run semantics.
+ */
+final class VectorSplitter {
+    static final int MIN_LENGTH = 32;
+    static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED;
+
+    private static final byte TAB = '\t';
+    private static final byte ESCAPE = '\\';
+
+    private VectorSplitter() {
+    }
+
+    static boolean available() {
+        return SPECIES.length() >= 16 && SPECIES.length() <= 64;
+    }
+
+    /**
+     * stops when {@code list} reaches {@code end} entries
+     */
+    static void split( byte[] line, int offset, int len, IntArrayList list, int end ) {
+        var step = SPECIES.length();
+        var bound = SPECIES.loopBound( len );
+        var escape = false;
+        var i = 0;
+        for( ; i < bound; i += step ) {
+            var vector = ByteVector.fromArray( SPECIES, line, offset + i );
+            if( !escape && !vector.eq( ESCAPE ).anyTrue() ) {
+                var tabs = vector.eq( TAB ).toLong();
+                while( tabs != 0 ) {
+                    list.add( i + Long.numberOfTrailingZeros( tabs ) + 1 );
+                    if( list.size() == end ) return;
+                    tabs &= tabs - 1;
+                }
+            } else {
+                escape = scalar( line, offset, i, i + step, escape, list, end );
+                if( list.size() == end ) return;
+            }
+        }
+        scalar( line, offset, i, len, escape, list, end );
+        if( list.size() < end ) list.add( len + 1 );
+    }
+
+    private static boolean scalar( byte[] line, int offset, int from, int to, boolean escape, IntArrayList list, int end ) {
+        for( var i = from; i < to; i++ ) {
+            switch( line[offset + i] ) {
+                case ESCAPE -> escape = !escape;
+                case TAB -> {
+                    if( !escape ) {
+                        list.add( i + 1 );
+                        if( list.size() == end ) return false;
+                    }
+                    escape = false;
+                }
+                default -> escape = false;
+            }
+        }
+        return escape;
+    }
+}
@@ -26,21 +26,32 @@ package oap.tsv.mapper;
 
 import lombok.EqualsAndHashCode;
 import lombok.ToString;
-import lombok.extern.slf4j.Slf4j;
+import oap.tsv.Interner;
+import oap.tsv.TsvMetrics;
+import oap.tsv.TsvRow;
+import oap.tsv.TsvSchema;
 import oap.tsv.TsvStream;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.Function;
 
 @EqualsAndHashCode
 @ToString
-@Slf4j
 public class Configuration {
+    public static final String WRONG_COLUMNS_NUMBER = "columnsNumber";
+
     public List<Column> columns = new ArrayList<>();
     public boolean hasHeaders = true;
     public boolean skipErrors = true;
     public int columnsNumber = 0;
     public boolean validateInput = false;
+    public int internSize = Interner.DEFAULT_SIZE;
+    public transient TsvMetrics metrics;
+    public transient ErrorSink errorSink = new SampledErrorSink();
 
     public Configuration() {
     }
@@ -63,21 +74,147 @@ public class Configuration {
         return this;
     }
 
+    public Configuration withInternSize( int internSize ) {
+        this.internSize = internSize;
+        return this;
+    }
+
+    public Configuration withErrorSink( ErrorSink errorSink ) {
+        this.errorSink = errorSink;
+        return this;
+    }
+
+    /**
+     * counts rows rejected by validation and time spent in {@link Mapper}
+     */
+    public Configuration withMetrics( TsvMetrics metrics ) {
+        this.metrics = metrics;
+        return this;
+    }
+
+    /**
+     * copy with column indices taken from the schema by column names, unknown names keep their index
+     *
+     * @throws IllegalArgumentException if a column without index is not in the schema
+     */
+    public Configuration resolve( TsvSchema schema ) {
+        var resolved = new ArrayList<Column>( columns.size() );
+        for( var column : columns ) {
+            var index = schema.indexOf( column.name() );
+            if( index < 0 && column.index() < 0 )
+                throw new IllegalArgumentException( "unknown header " + column.name() + " in " + schema.headers );
+            resolved.add( index < 0 ? column : new Column( index, column.name(), column.type(), column.intern() ) );
+        }
+
+        var configuration = new Configuration( resolved );
+        configuration.hasHeaders = hasHeaders;
+        configuration.skipErrors = skipErrors;
+        configuration.columnsNumber = columnsNumber;
+        configuration.validateInput = validateInput;
+        configuration.internSize = internSize;
+        configuration.metrics = metrics;
+        configuration.errorSink = errorSink;
+        return configuration;
+    }
+
     public TsvStream configure( TsvStream stream ) {
         var result = stream;
         if( hasHeaders ) result = result.withHeaders();
         if( validateInput ) {
             result = result.filter( line -> {
                 if( line.size() != columnsNumber ) {
-                    log.error( "erroneous line in configuration '{}'", line );
+                    if( metrics != null ) metrics.rejected.increment();
+                    errorSink.error( WRONG_COLUMNS_NUMBER, line );
                     if( skipErrors ) return false;
                     throw new IllegalArgumentException( "erroneous line " + line );
                 }
                 return true;
             } );
         }
+        if( columns.stream().anyMatch( Column::intern ) ) result = result.map( interning( result.schema() ) );
         return result;
     }
 
-    public record Column( int index, String name ) {}
+    /**
+     * lines are wrapped, not copied: a cell is decoded and interned when it is read.
+     * Interned columns without index are located in the schema, the ones missing there are not interned.
+     */
+    private Function<List<String>, List<String>> interning( TsvSchema schema ) {
+        var interners = new Interner[0];
+        for( var column : columns ) {
+            if( !column.intern() ) continue;
+            var index = column.index() >= 0 ? column.index() : schema.indexOf( column.name() );
+            if( index < 0 ) continue;
+            if( index >= interners.length ) interners = Arrays.copyOf( interners, index + 1 );
+            interners[index] = new Interner( internSize );
+        }
+
+        var resolved = interners;
+        return line -> line instanceof TsvRow row ? new InternedRow( row, resolved ) : new InternedLine( line, resolved );
+    }
+
+    private static final class InternedRow extends TsvRow {
+        private final Interner[] interners;
+
+        private InternedRow( TsvRow row, Interner[] interners ) {
+            super( row.bytes, row.cells );
+            this.interners = interners;
+        }
+
+        @Override
+        public String get( int index ) {
+            var interner = index < interners.length ? interners[index] : null;
+            return interner == null ? super.get( index ) : get( index, interner );
+        }
+    }
+
+    private static final class InternedLine extends AbstractList<String> implements RandomAccess {
+        private final List<String> line;
+        private final Interner[] interners;
+
+        private InternedLine( List<String> line, Interner[] interners ) {
+            this.line = line;
+            this.interners = interners;
+        }
+
+        @Override
+        public String get( int index ) {
+            var interner = index < interners.length ? interners[index] : null;
+            return interner == null ? line.get( index ) : interner.intern( line.get( index ) );
+        }
+
+        @Override
+        public int size() {
+            return line.size();
+        }
+    }
+
+    /**
+     * @param type   declared type of the cell, if null it is taken from the mapped parameter or field
+     * @param intern share one String instance between equal cells of the column, see {@link Interner}
+     */
+    public record Column( int index, String name, Type type, boolean intern ) {
+        /**
+         * column located by name, see {@link Configuration#resolve(TsvSchema)}
+         */
+        public Column( String name ) {
+            this( -1, name );
+        }
+
+        public Column( int index, String name ) {
+            this( index, name, null );
+        }
+
+        public Column( int index, String name, Type type ) {
+            this( index, name, type, false );
+        }
+
+        public Column interned() {
+            return new Column( index, name, type, true );
+        }
+
+        public enum Type {
+            STRING, INT, LONG, DOUBLE, BOOLEAN, ENUM, DATETIME
+        }
+    }
 }
@@ -0,0 +1,260 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv.mapper;
+
+import lombok.extern.slf4j.Slf4j;
+import oap.tsv.Bytes;
+import oap.tsv.Interner;
+import oap.tsv.TsvRow;
+import oap.tsv.mapper.Configuration.Column;
+import oap.tsv.mapper.Configuration.Column.Type;
+import org.joda.time.DateTime;
+import org.joda.time.DateTimeZone;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Constructor;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static java.lang.invoke.MethodType.methodType;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toMap;
+
+/**
+ * Constructor of the mapped class resolved once,
+ * with every parameter bound to a decoder of its column. Cells of a {@link TsvRow} are
+ * decoded straight from its bytes into primitives.
+ */
+@Slf4j
+final class Instantiator {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodHandle UNDECODABLE;
+
+    static {
+        try {
+            UNDECODABLE = LOOKUP.findStatic( Instantiator.class, "undecodable",
+                methodType( Object.class, IllegalArgumentException.class, List.class ) );
+        } catch( ReflectiveOperationException e ) {
+            throw new ExceptionInInitializerError( e );
+        }
+    }
+
+    private final MethodHandle constructor;
+
+    private Instantiator( MethodHandle constructor ) {
+        this.constructor = constructor;
+    }
+
+    /**
+     * @return null if there is no constructor matching the columns or a parameter type is not supported
+     */
+    static Instantiator of( Class<?> clazz, Configuration config ) {
+        var byName = config.columns.stream().collect( toMap( Column::name, c -> c, ( a, b ) -> b ) );
+        try {
+            return byConstructor( clazz, byName, config.internSize );
+        } catch( ReflectiveOperationException | RuntimeException e ) {
+            log.warn( "cannot bind a constructor of {}, mapping by reflection", clazz.getName(), e );
+            return null;
+        }
+    }
+
+    private static Instantiator byConstructor( Class<?> clazz, Map<String, Column> columns, int internSize ) throws ReflectiveOperationException {
+        for( var constructor : clazz.getDeclaredConstructors() ) {
+            var decoders = decoders( clazz, constructor, columns, internSize );
+            if( decoders == null ) continue;
+
+            constructor.setAccessible( true );
+            var handle = MethodHandles.filterArguments( LOOKUP.unreflectConstructor( constructor ), 0, decoders )
+                .asType( methodType( Object.class, Collections.nCopies( decoders.length, List.class ) ) );
+            return new Instantiator( MethodHandles.permuteArguments( handle,
+                methodType( Object.class, List.class ), new int[decoders.length] ) );
+        }
+        return null;
+    }
+
+    /**
+     * @return null if the parameters are not the columns or a parameter type is not supported
+     */
+    private static MethodHandle[] decoders( Class<?> clazz, Constructor<?> constructor, Map<String, Column> columns,
+                                            int internSize ) throws ReflectiveOperationException {
+        var names = names( clazz, constructor );
+        if( names == null || names.length != columns.size() ) return null;
+
+        var types = constructor.getParameterTypes();
+        var decoders = new MethodHandle[names.length];
+        for( var i = 0; i < names.length; i++ ) {
+            var column = columns.get( names[i] );
+            if( column == null ) return null;
+            decoders[i] = decoder( column, types[i], internSize );
+            if( decoders[i] == null ) return null;
+        }
+        return decoders;
+    }
+
+    private static String[] names( Class<?> clazz, Constructor<?> constructor ) {
+        if( clazz.isRecord() ) {
+            var components = clazz.getRecordComponents();
+            var types = Arrays.stream( components ).map( c -> c.getType() ).toArray( Class<?>[]::new );
+            return Arrays.equals( types, constructor.getParameterTypes() )
+                ? Arrays.stream( components ).map( c -> c.getName() ).toArray( String[]::new )
+                : null;
+        }
+
+        var parameters = constructor.getParameters();
+        var names = new String[parameters.length];
+        for( var i = 0; i < parameters.length; i++ ) {
+            if( !parameters[i].isNamePresent() ) return null;
+            names[i] = parameters[i].getName();
+        }
+        return names;
+    }
+
+    /**
+     * @return (List)type handle decoding the cell of the column, null if the type is not supported.
+     * A cell it cannot decode fails with {@link DecodeException}.
+     */
+    private static MethodHandle decoder( Column column, Class<?> type, int internSize ) throws ReflectiveOperationException {
+        var columnType = column.type() != null ? column.type() : type( type );
+        if( columnType == null || columnType == Type.ENUM && !type.isEnum() ) return null;
+
+        var handle = switch( columnType ) {
+            case STRING -> column.intern()
+                ? MethodHandles.insertArguments( LOOKUP.findStatic( Instantiator.class, "string",
+                    methodType( String.class, Interner.class, List.class, int.class ) ), 0, new Interner( internSize ) )
+                : LOOKUP.findStatic( Instantiator.class, "string", methodType( String.class, List.class, int.class ) );
+            case INT -> LOOKUP.findStatic( Instantiator.class, "intValue", methodType( int.class, List.class, int.class ) );
+            case LONG -> LOOKUP.findStatic( Instantiator.class, "longValue", methodType( long.class, List.class, int.class ) );
+            case DOUBLE -> LOOKUP.findStatic( Instantiator.class, "doubleValue", methodType( double.class, List.class, int.class ) );
+            case BOOLEAN -> LOOKUP.findStatic( Instantiator.class, "booleanValue", methodType( boolean.class, List.class, int.class ) );
+            case DATETIME -> LOOKUP.findStatic( Instantiator.class, "dateTime", methodType( DateTime.class, List.class, int.class ) );
+            case ENUM -> {
+                var constants = ( Enum<?>[] ) type.getEnumConstants();
+                var names = Arrays.stream( constants ).map( c -> c.name().getBytes( UTF_8 ) ).toArray( byte[][]::new );
+                yield MethodHandles.insertArguments( LOOKUP.findStatic( Instantiator.class, "enumValue",
+                    methodType( Enum.class, Enum[].class, byte[][].class, List.class, int.class ) ), 0, constants, names );
+            }
+        };
+        var decoder = MethodHandles.insertArguments( handle, 1, column.index() )
+            .asType( methodType( methodType( type ).unwrap().returnType(), List.class ) )
+            .asType( methodType( type, List.class ) );
+        return MethodHandles.catchException( decoder, IllegalArgumentException.class,
+            UNDECODABLE.asType( methodType( type, IllegalArgumentException.class, List.class ) ) );
+    }
+
+    private static Object undecodable( IllegalArgumentException e, List<String> line ) {
+        throw new DecodeException( e );
+    }
+
+    private static Type type( Class<?> type ) {
+        if( type == String.class || type == CharSequence.class || type == Object.class ) return Type.STRING;
+        if( type == int.class || type == Integer.class ) return Type.INT;
+        if( type == long.class || type == Long.class ) return Type.LONG;
+        if( type == double.class || type == Double.class ) return Type.DOUBLE;
+        if( type == boolean.class || type == Boolean.class ) return Type.BOOLEAN;
+        if( type == DateTime.class ) return Type.DATETIME;
+        if( type.isEnum() ) return Type.ENUM;
+        return null;
+    }
+
+    private static String string( List<String> line, int index ) {
+        return line.get( index );
+    }
+
+    private static String string( Interner interner, List<String> line, int index ) {
+        return line instanceof TsvRow row ? row.get( index, interner ) : interner.intern( line.get( index ) );
+    }
+
+    private static int intValue( List<String> line, int index ) {
+        return line instanceof TsvRow row
+            ? Bytes.parseInt( row.bytes, row.offset( index ), row.length( index ) )
+            : Integer.parseInt( line.get( index ) );
+    }
+
+    private static long longValue( List<String> line, int index ) {
+        return line instanceof TsvRow row
+            ? Bytes.parseLong( row.bytes, row.offset( index ), row.length( index ) )
+            : Long.parseLong( line.get( index ) );
+    }
+
+    private static double doubleValue( List<String> line, int index ) {
+        return line instanceof TsvRow row
+            ? Bytes.parseDouble( row.bytes, row.offset( index ), row.length( index ) )
+            : Double.parseDouble( line.get( index ) );
+    }
+
+    private static boolean booleanValue( List<String> line, int index ) {
+        return line instanceof TsvRow row
+            ? Bytes.parseBoolean( row.bytes, row.offset( index ), row.length( index ) )
+            : Boolean.parseBoolean( line.get( index ) );
+    }
+
+    /**
+     * Epoch millis or ISO-8601, in UTC. Other formats fail and are left to the {@link oap.reflect.Reflect} coercions by {@link Mapper}.
+     */
+    private static DateTime dateTime( List<String> line, int index ) {
+        if( line instanceof TsvRow row ) {
+            var offset = row.offset( index );
+            var length = row.length( index );
+            if( Bytes.isLong( row.bytes, offset, length ) )
+                return new DateTime( Bytes.parseLong( row.bytes, offset, length ), DateTimeZone.UTC );
+            return new DateTime( line.get( index ), DateTimeZone.UTC );
+        }
+
+        var value = line.get( index );
+        var bytes = value.getBytes( UTF_8 );
+        return Bytes.isLong( bytes, 0, bytes.length )
+            ? new DateTime( Bytes.parseLong( bytes, 0, bytes.length ), DateTimeZone.UTC )
+            : new DateTime( value, DateTimeZone.UTC );
+    }
+
+    private static Enum<?> enumValue( Enum<?>[] constants, byte[][] names, List<String> line, int index ) {
+        if( line instanceof TsvRow row ) {
+            var offset = row.offset( index );
+            var length = row.length( index );
+            for( var i = 0; i < names.length; i++ )
+                if( Bytes.equals( row.bytes, offset, length, names[i] ) ) return constants[i];
+        } else {
+            var value = line.get( index );
+            for( var constant : constants ) if( constant.name().equals( value ) ) return constant;
+        }
+        throw new IllegalArgumentException( "No enum constant " + constants.getClass().getComponentType().getName() + "." + line.get( index ) );
+    }
+
+    Object newInstance( List<String> line ) throws Throwable {
+        return ( Object ) constructor.invokeExact( line );
+    }
+
+    /**
+     * a cell rejected by a decoder, as opposed to a failure of the constructor itself
+     */
+    static final class DecodeException extends RuntimeException {
+        private DecodeException( IllegalArgumentException cause ) {
+            super( cause.getMessage(), cause, false, false );
+        }
+    }
+}
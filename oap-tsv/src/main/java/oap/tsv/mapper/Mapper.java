@@ -25,6 +25,7 @@
 package oap.tsv.mapper;
 
 import oap.reflect.Reflect;
+import oap.tsv.TsvSchema;
 import oap.util.Stream;
 
 import java.util.List;
@@ -35,10 +36,19 @@ import static oap.util.Pair.__;
 public class Mapper<E> implements Function<List<String>, E> {
     private final Class<E> clazz;
     private final Configuration config;
+    private final Instantiator instantiator;
 
     public Mapper( Class<E> clazz, Configuration config ) {
         this.clazz = clazz;
         this.config = config;
+        this.instantiator = Instantiator.of( clazz, config );
+    }
+
+    /**
+     * mapper with columns located by name in the schema
+     */
+    public static <E> Mapper<E> of( Class<E> clazz, Configuration config, TsvSchema schema ) {
+        return new Mapper<>( clazz, config.resolve( schema ) );
     }
 
     public static <E> Mapper<E> of( Class<E> clazz, Configuration config ) {
@@ -47,6 +57,36 @@ public class Mapper<E> implements Function<List<String>, E> {
 
     @Override
     public E apply( List<String> line ) {
+        if( config.metrics == null ) return map( line );
+
+        var start = System.nanoTime();
+        try {
+            return map( line );
+        } finally {
+            config.metrics.mapNanos.add( System.nanoTime() - start );
+        }
+    }
+
+    /**
+     * a line the decoders reject, e.g. with a date in another format, is mapped by {@link Reflect} coercions
+     * so that it maps, or fails, the same way with and without the decoders. Failures of the constructor itself
+     * are not retried.
+     */
+    private E map( List<String> line ) {
+        if( instantiator != null ) try {
+            return clazz.cast( instantiator.newInstance( line ) );
+        } catch( Instantiator.DecodeException e ) {
+            return reflect( line );
+        } catch( RuntimeException | Error e ) {
+            throw e;
+        } catch( Throwable e ) {
+            throw new IllegalStateException( e );
+        }
+
+        return reflect( line );
+    }
+
+    private E reflect( List<String> line ) {
         return Reflect.reflect( clazz ).newInstance( Stream.of( config.columns )
             .<String, Object>mapToPairs( f -> __( f.name(), line.get( f.index() ) ) )
             .toMap() );
@@ -0,0 +1,182 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) Open Application Platform Authors
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package oap.tsv.mapper;
+
+import lombok.extern.slf4j.Slf4j;
+import oap.tsv.TsvWriter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+/**
+ * Counts errors by kind, keeps the last {@code samples} offending lines, logs at most {@code logsPerSecond} of them
+ * and optionally appends every offending line to a quarantine file from a background thread.
+ * Lines not fitting into the quarantine queue are dropped and counted.
+ */
+@Slf4j
+public class SampledErrorSink implements ErrorSink, Closeable {
+    public static final int DEFAULT_SAMPLES = 100;
+    public static final int DEFAULT_LOGS_PER_SECOND = 10;
+    public static final int QUARANTINE_QUEUE_SIZE = 10000;
+    private static final List<String> STOP = new ArrayList<>();
+
+    private final Map<String, LongAdder> counts = new ConcurrentHashMap<>();
+    private final List<String>[] samples;
+    private final int logsPerSecond;
+    private final AtomicLong window = new AtomicLong();
+    private final AtomicInteger logged = new AtomicInteger();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private long sampled = 0;
+    private volatile BlockingQueue<List<String>> quarantine;
+    private Thread writer;
+
+    public SampledErrorSink() {
+        this( DEFAULT_SAMPLES, DEFAULT_LOGS_PER_SECOND );
+    }
+
+    @SuppressWarnings( "unchecked" )
+    public SampledErrorSink( int samples, int logsPerSecond ) {
+        this.samples = new List[samples];
+        this.logsPerSecond = logsPerSecond;
+    }
+
+    /**
+     * appends offending lines to the file as tsv
+     */
+    public synchronized SampledErrorSink withQuarantine( Path path ) {
+        if( writer != null ) throw new IllegalStateException( "quarantine is already set" );
+
+        var queue = new ArrayBlockingQueue<List<String>>( QUARANTINE_QUEUE_SIZE );
+        writer = new Thread( () -> write( path, queue ), "tsv-quarantine" );
+        writer.setDaemon( true );
+        writer.start();
+        quarantine = queue;
+        return this;
+    }
+
+    @Override
+    public void error( String kind, List<String> line ) {
+        counts.computeIfAbsent( kind, k -> new LongAdder() ).increment();
+
+        synchronized( samples ) {
+            if( samples.length > 0 ) samples[( int ) ( sampled++ % samples.length )] = line;
+        }
+
+        if( permit() ) log.error( "erroneous line ({}) in configuration '{}'", kind, line );
+        else suppressed.increment();
+
+        var queue = quarantine;
+        if( queue != null && !queue.offer( line ) ) dropped.increment();
+    }
+
+    private boolean permit() {
+        var second = TimeUnit.NANOSECONDS.toSeconds( System.nanoTime() );
+        var current = window.get();
+        if( second != current && window.compareAndSet( current, second ) ) {
+            logged.set( 0 );
+            var count = suppressed.sumThenReset();
+            if( count > 0 ) log.error( "{} more erroneous lines were not logged", count );
+        }
+        return logged.incrementAndGet() <= logsPerSecond;
+    }
+
+    public Map<String, Long> counts() {
+        var result = new TreeMap<String, Long>();
+        counts.forEach( ( kind, count ) -> result.put( kind, count.sum() ) );
+        return result;
+    }
+
+    /**
+     * @return the last offending lines, oldest first
+     */
+    public List<List<String>> samples() {
+        synchronized( samples ) {
+            var result = new ArrayList<List<String>>( samples.length );
+            var size = ( int ) Math.min( sampled, samples.length );
+            for( var i = sampled - size; i < sampled; i++ ) result.add( samples[( int ) ( i % samples.length )] );
+            return result;
+        }
+    }
+
+    /**
+     * @return lines not written to the quarantine file because its queue was full
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    private static void write( Path path, BlockingQueue<List<String>> queue ) {
+        try( var out = new TsvWriter( Files.newOutputStream( path, CREATE, APPEND ) ) ) {
+            while( true ) {
+                var line = queue.poll();
+                if( line == null ) {
+                    out.flush();
+                    line = queue.take();
+                }
+                if( line == STOP ) return;
+                out.write( line );
+            }
+        } catch( IOException e ) {
+            log.error( "cannot write quarantine " + path, e );
+        } catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * writes the queued lines and closes the quarantine file
+     */
+    @Override
+    public synchronized void close() {
+        if( writer == null ) return;
+        try {
+            while( writer.isAlive() && !quarantine.offer( STOP, 100, TimeUnit.MILLISECONDS ) ) {}
+            writer.join();
+        } catch( InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException( e );
+        } finally {
+            quarantine = null;
+            writer = null;
+        }
+    }
+}